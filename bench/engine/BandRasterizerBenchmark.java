@@ -0,0 +1,89 @@
+package engine;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import engine.DrawManager.RenderMode;
+import engine.DrawManager.SpriteType;
+
+/**
+ * Measures the time taken to draw the sprites of a frame in raster mode,
+ * for several numbers of bands and frame sizes. Bigger frames repeat the
+ * game screen on a grid, as if the playfield were scaled up. Also checks
+ * every frame drawn in bands is identical to the one drawn serially.
+ *
+ * Run from the project directory, after compiling the sources and the
+ * benchmarks together:
+ *
+ * <pre>
+ * javac -d bin $(find src bench -name '*.java')
+ * java -Djava.awt.headless=true -cp bin:res engine.BandRasterizerBenchmark
+ * </pre>
+ */
+public final class BandRasterizerBenchmark {
+
+	/** Number of screens on each side of the frames measured. */
+	private static final int[] SCALES = { 1, 2, 4 };
+	/** Numbers of bands, and of threads drawing them, measured. */
+	private static final int[] BAND_COUNTS = { 1, 2, 4, 8 };
+
+	/**
+	 * Private constructor, only runs from main.
+	 */
+	private BandRasterizerBenchmark() {
+
+	}
+
+	/**
+	 * Draws each frame size with each number of bands, and prints the
+	 * average time of each. Counts above the number of processors show the
+	 * cost of running more threads than cores.
+	 *
+	 * @param args
+	 *            Program args, ignored.
+	 * @throws IOException
+	 *             In case the sprites can not be loaded.
+	 */
+	public static void main(final String[] args) throws IOException {
+		Map<SpriteType, Sprite> spriteMap = Benchmarks.loadSprites();
+		int processors = Runtime.getRuntime().availableProcessors();
+		System.out.println(processors + " processors available.");
+
+		for (int scale : SCALES) {
+			final DrawCommandList frame = Benchmarks.createFrame(spriteMap,
+					scale);
+			int[] serialPixels = null;
+			long serialTime = 0;
+
+			for (int numBands : BAND_COUNTS) {
+				final OffscreenRenderer renderer = new OffscreenRenderer(
+						RenderMode.RASTER, spriteMap, false, numBands, null);
+				long time = Benchmarks.measure(new Runnable() {
+					@Override
+					public void run() {
+						renderer.render(frame);
+					}
+				});
+
+				int[] pixels = renderer.backBuffer.getPixels();
+				String check;
+				if (serialPixels == null) {
+					serialPixels = Arrays.copyOf(pixels, pixels.length);
+					serialTime = time;
+					check = "";
+				} else if (Arrays.equals(serialPixels, pixels)) {
+					check = ", identical to serial";
+				} else {
+					check = ", DIFFERENT FROM SERIAL";
+				}
+				System.out.println(frame.getWidth() + "x" + frame.getHeight()
+						+ ", " + frame.size() + " sprites, " + numBands
+						+ " bands: " + time / 1000 + " microseconds per frame, "
+						+ String.format("%.2f", (double) serialTime / time)
+						+ "x" + check + ".");
+			}
+		}
+		System.exit(0);
+	}
+}
@@ -0,0 +1,160 @@
+package engine;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Helpers shared by the benchmarks: timing a repeated operation, and
+ * building frames like the ones drawn during a game.
+ */
+public final class Benchmarks {
+
+	/** Time spent running the operation before measuring it. */
+	private static final long WARMUP_NANOS = 500000000L;
+	/** Time spent measuring the operation. */
+	private static final long MEASURE_NANOS = 1000000000L;
+	/** Width of the game screen. */
+	static final int SCREEN_WIDTH = 448;
+	/** Height of the game screen. */
+	static final int SCREEN_HEIGHT = 520;
+	/** Columns of the formation drawn on each screen. */
+	private static final int FORMATION_WIDTH = 8;
+	/** Rows of the formation drawn on each screen. */
+	private static final int FORMATION_HEIGHT = 7;
+	/** Distance between the ships of the formation. */
+	private static final int SEPARATION_DISTANCE = 40;
+	/** Bullets drawn on each screen. */
+	private static final int NUM_BULLETS = 12;
+
+	/**
+	 * Private constructor, only static helpers.
+	 */
+	private Benchmarks() {
+
+	}
+
+	/**
+	 * Runs an operation repeatedly, first to warm up and then measuring it.
+	 *
+	 * @param operation
+	 *            Operation to measure.
+	 * @return Average time taken by one run, in nanoseconds.
+	 */
+	public static long measure(final Runnable operation) {
+		long end = System.nanoTime() + WARMUP_NANOS;
+		while (System.nanoTime() < end)
+			operation.run();
+
+		long start = System.nanoTime();
+		long now;
+		int runs = 0;
+		do {
+			operation.run();
+			runs++;
+			now = System.nanoTime();
+		} while (now - start < MEASURE_NANOS);
+		return (now - start) / runs;
+	}
+
+	/**
+	 * Loads the sprites of the game, with the sizes used by the draw
+	 * manager.
+	 *
+	 * @return Sprite types mapped to their images.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	static Map<SpriteType, Sprite> loadSprites() throws IOException {
+		Map<SpriteType, Sprite> spriteMap =
+				new LinkedHashMap<SpriteType, Sprite>();
+		spriteMap.put(SpriteType.Ship, new Sprite(13, 8));
+		spriteMap.put(SpriteType.ShipDestroyed, new Sprite(13, 8));
+		spriteMap.put(SpriteType.Bullet, new Sprite(3, 5));
+		spriteMap.put(SpriteType.EnemyBullet, new Sprite(3, 5));
+		spriteMap.put(SpriteType.EnemyShipA1, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipA2, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipB1, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipB2, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipC1, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipC2, new Sprite(12, 8));
+		spriteMap.put(SpriteType.EnemyShipSpecial, new Sprite(16, 7));
+		spriteMap.put(SpriteType.Explosion, new Sprite(13, 7));
+		FileManager.getInstance().loadSprite(spriteMap);
+		return spriteMap;
+	}
+
+	/**
+	 * Records the sprites of a game frame, repeated on a grid of screens to
+	 * fill bigger frames.
+	 *
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 * @param scale
+	 *            Number of screens on each side of the frame.
+	 * @return Commands of the frame.
+	 */
+	static DrawCommandList createFrame(
+			final Map<SpriteType, Sprite> spriteMap, final int scale) {
+		DrawCommandList frame = new DrawCommandList();
+		frame.clear(SCREEN_WIDTH * scale, SCREEN_HEIGHT * scale);
+
+		for (int screenX = 0; screenX < scale; screenX++)
+			for (int screenY = 0; screenY < scale; screenY++) {
+				int left = screenX * SCREEN_WIDTH;
+				int top = screenY * SCREEN_HEIGHT;
+
+				addSprite(frame, spriteMap, SpriteType.Ship, Color.GREEN,
+						left + SCREEN_WIDTH / 2 - 13, top + SCREEN_HEIGHT - 30);
+				addSprite(frame, spriteMap, SpriteType.EnemyShipSpecial,
+						Color.RED, left + 60, top + 60);
+				for (int column = 0; column < FORMATION_WIDTH; column++)
+					for (int row = 0; row < FORMATION_HEIGHT; row++) {
+						SpriteType spriteType;
+						if (row < FORMATION_HEIGHT / 3)
+							spriteType = SpriteType.EnemyShipC1;
+						else if (row < FORMATION_HEIGHT * 2 / 3)
+							spriteType = SpriteType.EnemyShipB1;
+						else
+							spriteType = SpriteType.EnemyShipA1;
+						addSprite(frame, spriteMap, spriteType, Color.WHITE,
+								left + 20 + column * SEPARATION_DISTANCE, top
+										+ 100 + row * SEPARATION_DISTANCE);
+					}
+				for (int i = 0; i < NUM_BULLETS; i++)
+					addSprite(frame, spriteMap, i % 2 == 0 ? SpriteType.Bullet
+							: SpriteType.EnemyBullet, Color.WHITE, left + 30
+							+ i * 33, top + 80 + i * 29 % 360);
+			}
+		return frame;
+	}
+
+	/**
+	 * Records a sprite, with the size it is drawn at.
+	 *
+	 * @param frame
+	 *            Commands of the frame.
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param color
+	 *            Color of the sprite.
+	 * @param positionX
+	 *            Coordinates for the left side of the sprite.
+	 * @param positionY
+	 *            Coordinates for the upper side of the sprite.
+	 */
+	private static void addSprite(final DrawCommandList frame,
+			final Map<SpriteType, Sprite> spriteMap,
+			final SpriteType spriteType, final Color color,
+			final int positionX, final int positionY) {
+		Sprite sprite = spriteMap.get(spriteType);
+		frame.add().setSprite(spriteType, color, positionX, positionY,
+				sprite.getWidth() * SpriteAtlas.SCALE, sprite.getHeight()
+						* SpriteAtlas.SCALE);
+	}
+}
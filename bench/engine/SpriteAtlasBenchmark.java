@@ -0,0 +1,60 @@
+package engine;
+
+import java.io.IOException;
+import java.util.Map;
+
+import engine.DrawManager.RenderMode;
+import engine.DrawManager.SpriteType;
+
+/**
+ * Measures the time taken to draw the sprites of a game frame, once for
+ * each way of drawing them: a rectangle for each lit pixel as before the
+ * sprite atlas, one blit from the atlas, and the bitmasks written on the
+ * pixels.
+ *
+ * Run from the project directory, after compiling the sources and the
+ * benchmarks together:
+ *
+ * <pre>
+ * javac -d bin $(find src bench -name '*.java')
+ * java -Djava.awt.headless=true -cp bin:res engine.SpriteAtlasBenchmark
+ * </pre>
+ */
+public final class SpriteAtlasBenchmark {
+
+	/**
+	 * Private constructor, only runs from main.
+	 */
+	private SpriteAtlasBenchmark() {
+
+	}
+
+	/**
+	 * Draws the same frame in every render mode and prints the average time
+	 * of each.
+	 *
+	 * @param args
+	 *            Program args, ignored.
+	 * @throws IOException
+	 *             In case the sprites can not be loaded.
+	 */
+	public static void main(final String[] args) throws IOException {
+		Map<SpriteType, Sprite> spriteMap = Benchmarks.loadSprites();
+		final DrawCommandList frame = Benchmarks.createFrame(spriteMap, 1);
+		System.out.println("Drawing " + frame.size() + " sprites on "
+				+ frame.getWidth() + "x" + frame.getHeight() + ".");
+
+		for (RenderMode renderMode : RenderMode.values()) {
+			final OffscreenRenderer renderer = new OffscreenRenderer(
+					renderMode, spriteMap, false, 1, null);
+			long time = Benchmarks.measure(new Runnable() {
+				@Override
+				public void run() {
+					renderer.render(frame);
+				}
+			});
+			System.out.println(renderMode + ": " + time / 1000
+					+ " microseconds per frame.");
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package engine;
+
+import java.util.Random;
+
+/**
+ * Measures the time taken by an update to handle many cooldowns running at
+ * once, in three ways: cooldowns polling the clock, cooldowns marked
+ * finished by the timer wheel but still checked on every update, and
+ * timers of the wheel acting when they expire, so only expired timers cost
+ * anything. Every way runs on a simulated clock and expires the same
+ * timers.
+ *
+ * Run from the project directory, after compiling the sources and the
+ * benchmarks together:
+ *
+ * <pre>
+ * javac -d bin $(find src bench -name '*.java')
+ * java -cp bin engine.TimerWheelBenchmark
+ * </pre>
+ */
+public final class TimerWheelBenchmark {
+
+	/** Numbers of timers running at once measured. */
+	private static final int[] TIMER_COUNTS = { 10000, 100000 };
+	/** Shortest duration of a timer, in milliseconds. */
+	private static final int MIN_DURATION = 50;
+	/** Longest duration of a timer, in milliseconds. */
+	private static final int MAX_DURATION = 5000;
+	/** Time between updates, in nanoseconds. */
+	private static final long UPDATE_PERIOD = 1000000000L / 60;
+	/** Updates run to check every way expires the same timers. */
+	private static final int CHECKED_UPDATES = 600;
+
+	/**
+	 * Private constructor, only runs from main.
+	 */
+	private TimerWheelBenchmark() {
+
+	}
+
+	/**
+	 * Timers restarted as soon as they expire, one update each run.
+	 */
+	private abstract static class Scenario implements Runnable {
+		/** Source of the time, moved forward on each update. */
+		protected GameClock clock = new SimulatedClock();
+		/** Number of timers expired until now. */
+		protected long expiredCount;
+	}
+
+	/**
+	 * Cooldowns checked on every update, either polling the clock or marked
+	 * finished by a timer wheel.
+	 */
+	private static final class PollingScenario extends Scenario {
+		/** Wheel marking the cooldowns finished, null if polling the clock. */
+		private TimerWheel timerWheel;
+		/** Cooldowns running. */
+		private Cooldown[] cooldowns;
+
+		/**
+		 * Constructor, starts every cooldown.
+		 *
+		 * @param durations
+		 *            Duration of each cooldown, in milliseconds.
+		 * @param useWheel
+		 *            If a timer wheel marks the cooldowns finished.
+		 */
+		PollingScenario(final int[] durations, final boolean useWheel) {
+			if (useWheel)
+				this.timerWheel = new TimerWheel(this.clock.getTime());
+			this.cooldowns = new Cooldown[durations.length];
+			for (int i = 0; i < durations.length; i++) {
+				this.cooldowns[i] = new Cooldown(this.clock, this.timerWheel,
+						durations[i]);
+				this.cooldowns[i].reset();
+			}
+		}
+
+		/**
+		 * Runs an update, checking and restarting every cooldown.
+		 */
+		@Override
+		public void run() {
+			this.clock.tick(UPDATE_PERIOD);
+			if (this.timerWheel != null)
+				this.timerWheel.advance(this.clock.getTime());
+			for (Cooldown cooldown : this.cooldowns)
+				if (cooldown.checkFinished()) {
+					this.expiredCount++;
+					cooldown.reset();
+				}
+		}
+	}
+
+	/**
+	 * Timers of a wheel restarting themselves when they expire, nothing is
+	 * checked on each update.
+	 */
+	private static final class CallbackScenario extends Scenario {
+		/** Wheel the timers are scheduled in. */
+		private TimerWheel timerWheel;
+
+		/**
+		 * Timer restarting itself when it expires.
+		 */
+		private final class RepeatingTimer extends TimerWheel.Timer {
+			/** Duration of the timer, in milliseconds. */
+			private int duration;
+
+			/**
+			 * Constructor, starts the timer.
+			 *
+			 * @param duration
+			 *            Duration of the timer, in milliseconds.
+			 */
+			RepeatingTimer(final int duration) {
+				this.duration = duration;
+				schedule();
+			}
+
+			/**
+			 * Schedules the timer from the time of the current update, as
+			 * a cooldown reset in that update would.
+			 */
+			private void schedule() {
+				CallbackScenario.this.timerWheel.schedule(this,
+						CallbackScenario.this.clock.getTime() + this.duration
+								+ 1);
+			}
+
+			/**
+			 * Counts the expiry, and restarts the timer.
+			 */
+			@Override
+			protected void expire() {
+				CallbackScenario.this.expiredCount++;
+				schedule();
+			}
+		}
+
+		/**
+		 * Constructor, starts every timer.
+		 *
+		 * @param durations
+		 *            Duration of each timer, in milliseconds.
+		 */
+		CallbackScenario(final int[] durations) {
+			this.timerWheel = new TimerWheel(this.clock.getTime());
+			for (int duration : durations)
+				new RepeatingTimer(duration);
+		}
+
+		/**
+		 * Runs an update, moving the wheel only.
+		 */
+		@Override
+		public void run() {
+			this.clock.tick(UPDATE_PERIOD);
+			this.timerWheel.advance(this.clock.getTime());
+		}
+	}
+
+	/**
+	 * Runs every way with each number of timers, and prints the average
+	 * time of an update and the timers expired in each.
+	 *
+	 * @param args
+	 *            Program args, ignored.
+	 */
+	public static void main(final String[] args) {
+		for (int timerCount : TIMER_COUNTS) {
+			Random random = new Random(timerCount);
+			int[] durations = new int[timerCount];
+			for (int i = 0; i < timerCount; i++)
+				durations[i] = MIN_DURATION
+						+ random.nextInt(MAX_DURATION - MIN_DURATION);
+
+			Scenario[] scenarios = { new PollingScenario(durations, false),
+					new PollingScenario(durations, true),
+					new CallbackScenario(durations) };
+			String[] names = { "polling the clock", "polling the wheel",
+					"wheel callbacks" };
+			for (int i = 0; i < scenarios.length; i++) {
+				for (int j = 0; j < CHECKED_UPDATES; j++)
+					scenarios[i].run();
+				long checkedCount = scenarios[i].expiredCount;
+				long time = Benchmarks.measure(scenarios[i]);
+				System.out.println(timerCount + " timers, " + names[i] + ": "
+						+ time / 1000 + " microseconds per update, "
+						+ checkedCount + " expired in the first "
+						+ CHECKED_UPDATES + " updates.");
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import engine.DrawManager.PresentMode;
+import engine.DrawManager.RenderMode;
+import engine.DrawManager.SpriteType;
+
+/**
+ * Renders each frame and shows it on the game window.
+ */
+final class AwtRenderer extends OffscreenRenderer {
+
+	/** Application logger. */
+	private Logger logger;
+	/** Frame the frames are shown on. */
+	private Frame frame;
+	/** Pages of the frame, when showing frames with page flipping. */
+	private BufferStrategy bufferStrategy;
+
+	/**
+	 * Constructor, creates the pages of the frame if page flipping is used.
+	 *
+	 * @param frame
+	 *            Frame to show the frames on.
+	 * @param renderMode
+	 *            How sprites are drawn.
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 * @param dirtyRectangles
+	 *            If only the areas that changed are repainted.
+	 * @param presentMode
+	 *            How frames are shown.
+	 * @param numPages
+	 *            Number of pages used for page flipping.
+	 * @param numBands
+	 *            Number of bands sprites are drawn on in parallel in raster
+	 *            mode, 1 or less to draw them one after another.
+	 * @param recorder
+	 *            Records the frames shown, may be null.
+	 */
+	AwtRenderer(final Frame frame, final RenderMode renderMode,
+			final Map<SpriteType, Sprite> spriteMap,
+			final boolean dirtyRectangles, final PresentMode presentMode,
+			final int numPages, final int numBands,
+			final FrameRecorder recorder) {
+		super(renderMode, spriteMap, dirtyRectangles, numBands, true,
+				recorder);
+		this.logger = Core.getLogger();
+		this.frame = frame;
+		if (presentMode == PresentMode.STRATEGY)
+			this.bufferStrategy = frame.createPages(numPages);
+	}
+
+	/**
+	 * Executes the commands of a frame, and shows it on the window.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame, not modified while rendering.
+	 */
+	@Override
+	public void render(final DrawCommandList frameCommands) {
+		int width = frameCommands.getWidth();
+		int height = frameCommands.getHeight();
+
+		if (this.bufferStrategy != null && !needsPixels()
+				&& !repaintsChangesOnly()) {
+			// Draws straight on the next page. The whole page is drawn, so
+			// the window having been painted over only needs clearing.
+			this.frame.checkExposed();
+			Graphics2D pageGraphics = getPageGraphics(width, height);
+			findDirtyRegion(frameCommands, true);
+			repaint(frameCommands, pageGraphics, null, width);
+			pageGraphics.dispose();
+			showPage();
+			return;
+		}
+
+		Graphics2D bufferGraphics = this.backBuffer.begin(this.frame, width,
+				height);
+		// The whole frame is shown again if the window was painted over.
+		boolean exposed = this.frame.checkExposed();
+		findDirtyRegion(frameCommands, this.backBuffer.isNew() || exposed);
+		repaint(frameCommands, bufferGraphics, this.backBuffer.getPixels(),
+				width);
+		record(frameCommands);
+
+		if (this.bufferStrategy != null) {
+			Graphics2D pageGraphics = getPageGraphics(width, height);
+			pageGraphics.drawImage(this.backBuffer.getImage(), 0, 0, null);
+			pageGraphics.dispose();
+			showPage();
+		} else if (this.backBuffer.contentsLost()) {
+			this.logger.fine("Back buffer lost, frame not shown.");
+		} else {
+			showDirtyRegion();
+		}
+	}
+
+	/**
+	 * Shows the last page drawn, unless its contents were lost.
+	 */
+	private void showPage() {
+		if (this.bufferStrategy.contentsLost())
+			this.logger.fine("Page lost, frame not shown.");
+		else
+			this.bufferStrategy.show();
+		Toolkit.getDefaultToolkit().sync();
+	}
+
+	/**
+	 * Copies the repainted areas of the buffer to the window.
+	 */
+	private void showDirtyRegion() {
+		Graphics graphics = this.frame.getGraphics();
+		Insets insets = this.frame.getInsets();
+		for (int i = 0; i < this.dirtyRegion.size(); i++) {
+			int x = this.dirtyRegion.getX(i);
+			int y = this.dirtyRegion.getY(i);
+			int right = x + this.dirtyRegion.getWidth(i);
+			int bottom = y + this.dirtyRegion.getHeight(i);
+			graphics.drawImage(this.backBuffer.getImage(), insets.left + x,
+					insets.top + y, insets.left + right, insets.top + bottom,
+					x, y, right, bottom, this.frame);
+		}
+		graphics.dispose();
+	}
+
+	/**
+	 * Prepares the next page of the frame for drawing on it.
+	 *
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 * @return Graphics context of the page, cleared and positioned inside
+	 *         the frame insets.
+	 */
+	private Graphics2D getPageGraphics(final int width, final int height) {
+		Insets insets = this.frame.getInsets();
+		Graphics2D pageGraphics = (Graphics2D) this.bufferStrategy
+				.getDrawGraphics();
+		pageGraphics.translate(insets.left, insets.top);
+		pageGraphics.clipRect(0, 0, width, height);
+		pageGraphics.setColor(Color.BLACK);
+		pageGraphics.fillRect(0, 0, width, height);
+		return pageGraphics;
+	}
+}
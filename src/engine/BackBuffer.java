@@ -0,0 +1,189 @@
+package engine;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.VolatileImage;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a single image to draw each frame on, reused between frames while
+ * the size stays the same. Uses an accelerated image when the graphics
+ * device provides one.
+ */
+final class BackBuffer {
+
+	/** Application logger. */
+	private Logger logger;
+	/** If an accelerated image may be used. */
+	private boolean allowAccelerated;
+	/** Accelerated image, if in use. */
+	private VolatileImage volatileImage;
+	/** Image in system memory, if in use. */
+	private BufferedImage bufferedImage;
+	/** Pixels of the image in system memory, if in use. */
+	private int[] pixels;
+	/** Graphics context of the image in use. */
+	private Graphics2D graphics;
+	/** Width of the image in use. */
+	private int width;
+	/** Height of the image in use. */
+	private int height;
+	/** If the contents of the image were lost since the last frame. */
+	private boolean isNew;
+
+	/**
+	 * Constructor, no image is created until the first frame.
+	 *
+	 * @param allowAccelerated
+	 *            If an accelerated image may be used.
+	 */
+	BackBuffer(final boolean allowAccelerated) {
+		this.logger = Core.getLogger();
+		this.allowAccelerated = allowAccelerated;
+	}
+
+	/**
+	 * Prepares the buffer for a new frame, creating or restoring the image if
+	 * needed. The previous frame is kept unless the image is new.
+	 *
+	 * @param component
+	 *            Component the buffer will be shown on.
+	 * @param newWidth
+	 *            Width of the frame.
+	 * @param newHeight
+	 *            Height of the frame.
+	 * @return Graphics context to draw the frame with.
+	 */
+	Graphics2D begin(final Component component, final int newWidth,
+			final int newHeight) {
+		this.isNew = false;
+		if (this.graphics == null || newWidth != this.width
+				|| newHeight != this.height) {
+			release();
+			create(component, newWidth, newHeight);
+		} else if (this.volatileImage != null) {
+			GraphicsConfiguration configuration = component
+					.getGraphicsConfiguration();
+			int status = this.volatileImage.validate(configuration);
+			if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				this.logger.fine("Back buffer incompatible, recreating it.");
+				release();
+				create(component, newWidth, newHeight);
+			} else if (status == VolatileImage.IMAGE_RESTORED) {
+				this.logger.fine("Back buffer restored.");
+				this.graphics.dispose();
+				this.graphics = this.volatileImage.createGraphics();
+				this.isNew = true;
+			}
+		}
+
+		return this.graphics;
+	}
+
+	/**
+	 * Creates a new image, accelerated if possible.
+	 *
+	 * @param component
+	 *            Component the buffer will be shown on.
+	 * @param newWidth
+	 *            Width of the image.
+	 * @param newHeight
+	 *            Height of the image.
+	 */
+	private void create(final Component component, final int newWidth,
+			final int newHeight) {
+		this.width = newWidth;
+		this.height = newHeight;
+		this.isNew = true;
+
+		if (this.allowAccelerated && component != null) {
+			GraphicsConfiguration configuration = component
+					.getGraphicsConfiguration();
+			if (configuration != null) {
+				VolatileImage image = configuration
+						.createCompatibleVolatileImage(newWidth, newHeight);
+				if (image != null
+						&& image.getCapabilities().isAccelerated()) {
+					image.validate(configuration);
+					this.volatileImage = image;
+					this.graphics = image.createGraphics();
+					this.logger.info("Using an accelerated " + newWidth + "x"
+							+ newHeight + " back buffer.");
+					return;
+				}
+				if (image != null)
+					image.flush();
+			}
+		}
+
+		this.bufferedImage = new BufferedImage(newWidth, newHeight,
+				BufferedImage.TYPE_INT_RGB);
+		this.pixels = ((DataBufferInt) this.bufferedImage.getRaster()
+				.getDataBuffer()).getData();
+		this.graphics = this.bufferedImage.createGraphics();
+		this.logger.info("Using a " + newWidth + "x" + newHeight
+				+ " back buffer in system memory.");
+	}
+
+	/**
+	 * Checks if the image was created or restored for this frame, so it does
+	 * not keep the previous one.
+	 *
+	 * @return True if the image has to be painted completely.
+	 */
+	boolean isNew() {
+		return this.isNew;
+	}
+
+	/**
+	 * Checks if the contents of the last frame were lost before being shown,
+	 * in which case it should not be shown.
+	 *
+	 * @return True if the frame was lost.
+	 */
+	boolean contentsLost() {
+		return this.volatileImage != null
+				&& this.volatileImage.contentsLost();
+	}
+
+	/**
+	 * Getter for the image in use.
+	 *
+	 * @return Image with the current frame.
+	 */
+	Image getImage() {
+		if (this.volatileImage != null)
+			return this.volatileImage;
+		return this.bufferedImage;
+	}
+
+	/**
+	 * Getter for the pixels of the image, only available when it is not
+	 * accelerated.
+	 *
+	 * @return Pixels of the image row by row, or null if accelerated.
+	 */
+	int[] getPixels() {
+		return this.pixels;
+	}
+
+	/**
+	 * Frees the image in use, a new one is created on the next frame.
+	 */
+	void release() {
+		if (this.graphics != null)
+			this.graphics.dispose();
+		if (this.volatileImage != null)
+			this.volatileImage.flush();
+		if (this.bufferedImage != null)
+			this.bufferedImage.flush();
+		this.graphics = null;
+		this.volatileImage = null;
+		this.bufferedImage = null;
+		this.pixels = null;
+	}
+}
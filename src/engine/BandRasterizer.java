@@ -0,0 +1,188 @@
+package engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Draws runs of sprites on the pixels of an image in parallel, splitting
+ * the area drawn in horizontal bands. Each band draws every sprite of the
+ * run in order, clipped to its rows, so the result is the same as drawing
+ * them one after another.
+ */
+final class BandRasterizer {
+
+	/** Fewest rows worth giving to a band. */
+	private static final int MIN_BAND_HEIGHT = 8;
+	/** Fewest sprites worth drawing in parallel. */
+	private static final int MIN_PARALLEL_SPRITES = 8;
+
+	/** Draws each sprite on the pixels. */
+	private SpriteRasterizer spriteRasterizer;
+	/** Threads drawing the bands. */
+	private ForkJoinPool pool;
+	/** Bands, reused for every run. */
+	private Band[] bands;
+	/** Task drawing every band, reused for every run. */
+	private RecursiveAction allBands;
+
+	/** Pixels of the image being drawn on. */
+	private int[] pixels;
+	/** Width of the image being drawn on. */
+	private int pixelsWidth;
+	/** Commands of the frame being drawn. */
+	private DrawCommandList commands;
+	/** First command of the run being drawn. */
+	private int runStart;
+	/** Command after the last one of the run being drawn. */
+	private int runEnd;
+	/** Left side of the area being drawn. */
+	private int clipLeft;
+	/** Right side of the area being drawn, exclusive. */
+	private int clipRight;
+
+	/** Number of runs drawn in parallel. */
+	private AtomicInteger parallelRunCount = new AtomicInteger();
+	/** Total time spent drawing runs in parallel, in nanoseconds. */
+	private AtomicLong parallelTime = new AtomicLong();
+
+	/**
+	 * Band of rows, drawing the current run clipped to them.
+	 */
+	private final class Band extends RecursiveAction {
+		/** Serialization id, tasks are never serialized. */
+		private static final long serialVersionUID = 1L;
+		/** Upper row of the band. */
+		private int top;
+		/** Row below the band. */
+		private int bottom;
+
+		/**
+		 * Draws every sprite of the run touching the band.
+		 */
+		@Override
+		protected void compute() {
+			drawSprites(this.top, this.bottom);
+		}
+	}
+
+	/**
+	 * Constructor, starts the pool of threads.
+	 *
+	 * @param spriteRasterizer
+	 *            Draws each sprite on the pixels.
+	 * @param numBands
+	 *            Number of bands, and of threads drawing them.
+	 */
+	BandRasterizer(final SpriteRasterizer spriteRasterizer,
+			final int numBands) {
+		this.spriteRasterizer = spriteRasterizer;
+		this.pool = new ForkJoinPool(numBands);
+		this.bands = new Band[numBands];
+		for (int i = 0; i < numBands; i++)
+			this.bands[i] = new Band();
+		this.allBands = new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(BandRasterizer.this.bands);
+			}
+		};
+		Core.getLogger().info("Drawing sprites on " + numBands
+				+ " bands in parallel.");
+	}
+
+	/**
+	 * Draws a run of consecutive sprite commands, clipped to a rectangle,
+	 * and returns once all of them are drawn.
+	 *
+	 * @param targetPixels
+	 *            Pixels of the image, row by row.
+	 * @param targetWidth
+	 *            Width of the image.
+	 * @param frameCommands
+	 *            Commands of the frame.
+	 * @param start
+	 *            First sprite command of the run.
+	 * @param end
+	 *            Command after the last one of the run.
+	 * @param left
+	 *            Left side of the clipping rectangle.
+	 * @param top
+	 *            Upper side of the clipping rectangle.
+	 * @param right
+	 *            Right side of the clipping rectangle, exclusive.
+	 * @param bottom
+	 *            Bottom side of the clipping rectangle, exclusive.
+	 */
+	void draw(final int[] targetPixels, final int targetWidth,
+			final DrawCommandList frameCommands, final int start,
+			final int end, final int left, final int top, final int right,
+			final int bottom) {
+		this.pixels = targetPixels;
+		this.pixelsWidth = targetWidth;
+		this.commands = frameCommands;
+		this.runStart = start;
+		this.runEnd = end;
+		this.clipLeft = left;
+		this.clipRight = right;
+
+		int numBands = Math.min(this.bands.length, (bottom - top)
+				/ MIN_BAND_HEIGHT);
+		if (numBands < 2 || end - start < MIN_PARALLEL_SPRITES) {
+			drawSprites(top, bottom);
+			return;
+		}
+
+		long startTime = System.nanoTime();
+		int bandHeight = (bottom - top + numBands - 1) / numBands;
+		for (int i = 0; i < this.bands.length; i++) {
+			Band band = this.bands[i];
+			band.top = Math.min(bottom, top + i * bandHeight);
+			band.bottom = Math.min(bottom, band.top + bandHeight);
+			band.reinitialize();
+		}
+		this.allBands.reinitialize();
+		this.pool.invoke(this.allBands);
+
+		this.parallelRunCount.incrementAndGet();
+		this.parallelTime.addAndGet(System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Draws every sprite of the current run touching some rows.
+	 *
+	 * @param top
+	 *            Upper row.
+	 * @param bottom
+	 *            Row below the last one, exclusive.
+	 */
+	private void drawSprites(final int top, final int bottom) {
+		if (top >= bottom)
+			return;
+		for (int i = this.runStart; i < this.runEnd; i++) {
+			DrawCommand command = this.commands.get(i);
+			if (command.intersects(this.clipLeft, top, this.clipRight
+					- this.clipLeft, bottom - top))
+				this.spriteRasterizer.draw(this.pixels, this.pixelsWidth,
+						command.getSpriteType(), command.getColor().getRGB(),
+						command.getPositionX(), command.getPositionY(),
+						this.clipLeft, top, this.clipRight, bottom);
+		}
+	}
+
+	/**
+	 * Logs the average time spent drawing a run in parallel since the last
+	 * call, and starts counting again.
+	 */
+	void logStatistics() {
+		int runs = this.parallelRunCount.getAndSet(0);
+		long time = this.parallelTime.getAndSet(0);
+		if (runs > 0)
+			Core.getLogger().info("Drew " + runs + " runs of sprites on "
+					+ this.bands.length + " bands in parallel, " + time
+					/ runs / 1000 + " microseconds per run on average.");
+	}
+}
@@ -16,15 +16,30 @@ public class Cooldown {
 	private int duration;
 	/** Beginning time. */
 	private long time;
+	/** Source of the time. */
+	private GameClock clock;
+	/** Wheel marking the cooldown finished, null if polling the clock. */
+	private TimerWheel timerWheel;
+	/** Timer pending while the cooldown runs, when using the wheel. */
+	private TimerWheel.Timer timer;
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again.
 	 * 
+	 * @param clock
+	 *            Source of the time.
+	 * @param timerWheel
+	 *            Wheel marking the cooldown finished, null to check the
+	 *            time on every call.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 */
-	protected Cooldown(final int milliseconds) {
+	protected Cooldown(final GameClock clock, final TimerWheel timerWheel,
+			final int milliseconds) {
+		this.clock = clock;
+		this.timerWheel = timerWheel;
+		this.timer = new TimerWheel.Timer();
 		this.milliseconds = milliseconds;
 		this.variance = 0;
 		this.duration = milliseconds;
@@ -35,37 +50,65 @@ public class Cooldown {
 	 * Constructor, established the time until the action can be performed
 	 * again, with a variation of +/- variance.
 	 * 
+	 * @param clock
+	 *            Source of the time.
+	 * @param timerWheel
+	 *            Wheel marking the cooldown finished, null to check the
+	 *            time on every call.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 * @param variance
 	 *            Variance in the cooldown period.
 	 */
-	protected Cooldown(final int milliseconds, final int variance) {
+	protected Cooldown(final GameClock clock, final TimerWheel timerWheel,
+			final int milliseconds, final int variance) {
+		this.clock = clock;
+		this.timerWheel = timerWheel;
+		this.timer = new TimerWheel.Timer();
 		this.milliseconds = milliseconds;
 		this.variance = variance;
 		this.time = 0;
 	}
 
 	/**
-	 * Checks if the cooldown is finished.
+	 * Checks if the cooldown is finished. With a timer wheel, this is only
+	 * checking if its timer is still pending.
 	 * 
 	 * @return Cooldown state.
 	 */
 	public final boolean checkFinished() {
+		if (this.timerWheel != null)
+			return !this.timer.isPending();
 		if ((this.time == 0)
-				|| this.time + this.duration < System.currentTimeMillis())
+				|| this.time + this.duration < this.clock.getTime())
 			return true;
 		return false;
 	}
 
+	/**
+	 * Returns the time left until the cooldown is finished.
+	 * 
+	 * @return Milliseconds until {@link #checkFinished()} returns true, 0 if
+	 *         it already does.
+	 */
+	public final long getRemainingTime() {
+		if (this.time == 0 || checkFinished())
+			return 0;
+		return Math.max(0, this.time + this.duration + 1
+				- this.clock.getTime());
+	}
+
 	/**
 	 * Restarts the cooldown.
 	 */
 	public final void reset() {
-		this.time = System.currentTimeMillis();
+		this.time = this.clock.getTime();
 		if (this.variance != 0)
 			this.duration = (this.milliseconds - this.variance)
 					+ (int) (Math.random()
 							* (this.milliseconds + this.variance));
+		if (this.timerWheel != null)
+			this.timerWheel.schedule(this.timer, this.time + this.duration
+					+ 1);
 	}
 }
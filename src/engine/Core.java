@@ -1,5 +1,6 @@
 package engine;
 
+import java.awt.GraphicsEnvironment;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.ConsoleHandler;
@@ -64,6 +65,30 @@ public final class Core {
 	private static Screen currentScreen;
 	/** Difficulty settings list. */
 	private static List<GameSettings> gameSettings;
+	/** If the game runs as fast as possible on simulated time. */
+	private static boolean turbo = Boolean.getBoolean("invaders.turbo");
+	/** Ways of reading the time of the game. */
+	private static enum ClockMode {
+		/** System time, read on every call. */
+		WALL,
+		/** System time, read once per update. */
+		FRAME,
+		/** Time moved forward one update period on each update. */
+		SIMULATED
+	};
+
+	/** Ways of finding out when cooldowns finish. */
+	private static enum TimerMode {
+		/** Each cooldown checks the time when asked. */
+		POLL,
+		/** A timer wheel marks the cooldowns finished once per update. */
+		WHEEL
+	};
+
+	/** Source of the time of the game, read by every cooldown. */
+	private static GameClock clock = new WallClock();
+	/** Wheel marking cooldowns finished, null if they poll the clock. */
+	private static TimerWheel timerWheel;
 	/** Application logger. */
 	private static final Logger LOGGER = Logger.getLogger(Core.class
 			.getSimpleName());
@@ -98,11 +123,6 @@ public final class Core {
 			e.printStackTrace();
 		}
 
-		frame = new Frame(WIDTH, HEIGHT);
-		DrawManager.getInstance().setFrame(frame);
-		int width = frame.getWidth();
-		int height = frame.getHeight();
-
 		gameSettings = new ArrayList<GameSettings>();
 		gameSettings.add(SETTINGS_LEVEL_1);
 		gameSettings.add(SETTINGS_LEVEL_2);
@@ -111,7 +131,31 @@ public final class Core {
 		gameSettings.add(SETTINGS_LEVEL_5);
 		gameSettings.add(SETTINGS_LEVEL_6);
 		gameSettings.add(SETTINGS_LEVEL_7);
-		
+
+		if (turbo && !GraphicsEnvironment.isHeadless()) {
+			LOGGER.warning("Turbo mode needs -Djava.awt.headless=true, "
+					+ "running normally.");
+			turbo = false;
+		}
+		clock = createClock();
+		if (getOption("invaders.timers", TimerMode.POLL) == TimerMode.WHEEL) {
+			timerWheel = new TimerWheel(clock.getTime());
+			LOGGER.info("Finishing cooldowns with a timer wheel.");
+		}
+		if (GraphicsEnvironment.isHeadless()) {
+			runHeadless();
+			DrawManager.getInstance().stopRecording();
+			getPreloader().shutdown();
+			fileHandler.flush();
+			fileHandler.close();
+			System.exit(0);
+		}
+
+		frame = new Frame(WIDTH, HEIGHT);
+		DrawManager.getInstance().setFrame(frame);
+		int width = frame.getWidth();
+		int height = frame.getHeight();
+
 		GameState gameState;
 
 		int returnCode = 1;
@@ -120,7 +164,9 @@ public final class Core {
 
 			switch (returnCode) {
 			case 1:
-				// Main menu.
+				// Main menu, next comes a game or the high scores.
+				getPreloader().preloadFormation(gameSettings.get(0));
+				getPreloader().preloadHighScores();
 				currentScreen = new TitleScreen(width, height, FPS);
 				LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
 						+ " title screen at " + FPS + " fps.");
@@ -138,6 +184,7 @@ public final class Core {
 					currentScreen = new GameScreen(gameState,
 							gameSettings.get(gameState.getLevel() - 1),
 							bonusLife, width, height, FPS);
+					preloadAfter(gameState.getLevel());
 					LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
 							+ " game screen at " + FPS + " fps.");
 					frame.setScreen(currentScreen);
@@ -153,6 +200,7 @@ public final class Core {
 
 				} while (gameState.getLivesRemaining() > 0
 						&& gameState.getLevel() <= NUM_LEVELS);
+				getPreloader().cancelFormations();
 
 				LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
 						+ " score screen at " + FPS + " fps, with a score of "
@@ -161,6 +209,8 @@ public final class Core {
 						+ gameState.getBulletsShot() + " bullets shot and "
 						+ gameState.getShipsDestroyed() + " ships destroyed.");
 				currentScreen = new ScoreScreen(width, height, FPS, gameState);
+				// Playing again starts on the first level.
+				getPreloader().preloadFormation(gameSettings.get(0));
 				returnCode = frame.setScreen(currentScreen);
 				LOGGER.info("Closing score screen.");
 				break;
@@ -178,11 +228,75 @@ public final class Core {
 
 		} while (returnCode != 0);
 
+		DrawManager.getInstance().stopRecording();
+		getPreloader().shutdown();
 		fileHandler.flush();
 		fileHandler.close();
 		System.exit(0);
 	}
 
+	/**
+	 * Plays a game without a display or user input, until the player runs
+	 * out of lives or every level is cleared. Used to measure the game on
+	 * machines with no display, and in turbo mode to simulate whole games.
+	 */
+	private static void runHeadless() {
+		DrawManager.getInstance().setHeadless();
+		GameState gameState = new GameState(1, 0, MAX_LIVES, 0, 0);
+		long startTime = System.currentTimeMillis();
+		long simulationStart = clock.getTime();
+
+		do {
+			boolean bonusLife = gameState.getLevel()
+					% EXTRA_LIFE_FRECUENCY == 0
+					&& gameState.getLivesRemaining() < MAX_LIVES;
+
+			currentScreen = new GameScreen(gameState,
+					gameSettings.get(gameState.getLevel() - 1),
+					bonusLife, WIDTH, HEIGHT, FPS);
+			preloadAfter(gameState.getLevel());
+			LOGGER.info("Starting headless " + WIDTH + "x" + HEIGHT
+					+ " game screen.");
+			currentScreen.initialize();
+			currentScreen.run();
+			DrawManager.getInstance().releaseBackBuffer();
+			LOGGER.info("Closing game screen.");
+
+			gameState = ((GameScreen) currentScreen).getGameState();
+
+			gameState = new GameState(gameState.getLevel() + 1,
+					gameState.getScore(),
+					gameState.getLivesRemaining(),
+					gameState.getBulletsShot(),
+					gameState.getShipsDestroyed());
+
+		} while (gameState.getLivesRemaining() > 0
+				&& gameState.getLevel() <= NUM_LEVELS);
+		getPreloader().cancelFormations();
+
+		LOGGER.info("Headless game finished with a score of "
+				+ gameState.getScore() + " in "
+				+ (System.currentTimeMillis() - startTime)
+				+ " milliseconds.");
+		if (turbo)
+			LOGGER.info("Simulated " + (clock.getTime() - simulationStart)
+					+ " milliseconds of play in turbo mode.");
+	}
+
+	/**
+	 * Starts preparing what may come after a level while it is played: the
+	 * formation of the next level, and the high scores for the score
+	 * screen.
+	 * 
+	 * @param level
+	 *            Level about to be played.
+	 */
+	private static void preloadAfter(final int level) {
+		if (level < NUM_LEVELS)
+			getPreloader().preloadFormation(gameSettings.get(level));
+		getPreloader().preloadHighScores();
+	}
+
 	/**
 	 * Constructor, not called.
 	 */
@@ -208,6 +322,24 @@ public final class Core {
 		return DrawManager.getInstance();
 	}
 
+	/**
+	 * Controls access to the frame statistics.
+	 * 
+	 * @return Application frame statistics.
+	 */
+	public static FrameStats getFrameStats() {
+		return FrameStats.getInstance();
+	}
+
+	/**
+	 * Controls access to the preloader.
+	 * 
+	 * @return Application preloader.
+	 */
+	public static Preloader getPreloader() {
+		return Preloader.getInstance();
+	}
+
 	/**
 	 * Controls access to the input manager.
 	 * 
@@ -226,6 +358,56 @@ public final class Core {
 		return FileManager.getInstance();
 	}
 
+	/**
+	 * Checks if the game runs in turbo mode, as fast as possible on
+	 * simulated time, chosen at startup with -Dinvaders.turbo=true.
+	 * 
+	 * @return True if in turbo mode.
+	 */
+	public static boolean isTurbo() {
+		return turbo;
+	}
+
+	/**
+	 * Controls access to the game clock.
+	 * 
+	 * @return Source of the time of the game.
+	 */
+	public static GameClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Controls access to the timer wheel.
+	 * 
+	 * @return Wheel marking cooldowns finished, null if they poll the
+	 *         clock.
+	 */
+	public static TimerWheel getTimerWheel() {
+		return timerWheel;
+	}
+
+	/**
+	 * Creates the game clock chosen at startup with -Dinvaders.clock,
+	 * always simulated in turbo mode.
+	 * 
+	 * @return New game clock.
+	 */
+	private static GameClock createClock() {
+		ClockMode mode = turbo ? ClockMode.SIMULATED : getOption(
+				"invaders.clock", ClockMode.WALL);
+		LOGGER.info("Using the " + mode.toString().toLowerCase()
+				+ " game clock.");
+		switch (mode) {
+		case FRAME:
+			return new FrameClock();
+		case SIMULATED:
+			return new SimulatedClock();
+		default:
+			return new WallClock();
+		}
+	}
+
 	/**
 	 * Controls creation of new cooldowns.
 	 * 
@@ -234,7 +416,7 @@ public final class Core {
 	 * @return A new cooldown.
 	 */
 	public static Cooldown getCooldown(final int milliseconds) {
-		return new Cooldown(milliseconds);
+		return new Cooldown(clock, timerWheel, milliseconds);
 	}
 
 	/**
@@ -248,6 +430,34 @@ public final class Core {
 	 */
 	public static Cooldown getVariableCooldown(final int milliseconds,
 			final int variance) {
-		return new Cooldown(milliseconds, variance);
+		return new Cooldown(clock, timerWheel, milliseconds, variance);
+	}
+
+	/**
+	 * Reads a startup option, given as a system property (i.e.
+	 * -Dinvaders.render=pixel), with the name of one of the enum constants.
+	 *
+	 * @param <E>
+	 *            Type of the option.
+	 * @param name
+	 *            Name of the system property.
+	 * @param defaultValue
+	 *            Value used if the option is missing or not valid.
+	 * @return Selected option.
+	 */
+	public static <E extends Enum<E>> E getOption(final String name,
+			final E defaultValue) {
+		String value = System.getProperty(name);
+		if (value == null)
+			return defaultValue;
+
+		try {
+			return Enum.valueOf(defaultValue.getDeclaringClass(),
+					value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			LOGGER.warning("Unknown value " + value + " for " + name
+					+ ", using " + defaultValue + ".");
+			return defaultValue;
+		}
 	}
 }
\ No newline at end of file
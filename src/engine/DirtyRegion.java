@@ -0,0 +1,196 @@
+package engine;
+
+/**
+ * Keeps the set of rectangles of a frame that changed since the previous
+ * one. Rectangles that touch are merged, so they never overlap.
+ */
+final class DirtyRegion {
+
+	/** Maximum number of separate rectangles. */
+	private static final int MAX_RECTANGLES = 16;
+
+	/** Left side of each rectangle. */
+	private int[] left;
+	/** Upper side of each rectangle. */
+	private int[] top;
+	/** Right side of each rectangle, exclusive. */
+	private int[] right;
+	/** Bottom side of each rectangle, exclusive. */
+	private int[] bottom;
+	/** Number of rectangles. */
+	private int size;
+	/** Width of the frame. */
+	private int frameWidth;
+	/** Height of the frame. */
+	private int frameHeight;
+
+	/**
+	 * Constructor, creates an empty region.
+	 */
+	DirtyRegion() {
+		this.left = new int[MAX_RECTANGLES];
+		this.top = new int[MAX_RECTANGLES];
+		this.right = new int[MAX_RECTANGLES];
+		this.bottom = new int[MAX_RECTANGLES];
+	}
+
+	/**
+	 * Empties the region.
+	 *
+	 * @param width
+	 *            Width of the frame, rectangles are clipped to it.
+	 * @param height
+	 *            Height of the frame, rectangles are clipped to it.
+	 */
+	void clear(final int width, final int height) {
+		this.frameWidth = width;
+		this.frameHeight = height;
+		this.size = 0;
+	}
+
+	/**
+	 * Makes the region cover the whole frame.
+	 *
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 */
+	void setFull(final int width, final int height) {
+		clear(width, height);
+		add(0, 0, width, height);
+	}
+
+	/**
+	 * Adds a rectangle to the region.
+	 *
+	 * @param x
+	 *            Left side of the rectangle.
+	 * @param y
+	 *            Upper side of the rectangle.
+	 * @param width
+	 *            Width of the rectangle.
+	 * @param height
+	 *            Height of the rectangle.
+	 */
+	void add(final int x, final int y, final int width, final int height) {
+		int newLeft = Math.max(x, 0);
+		int newTop = Math.max(y, 0);
+		int newRight = Math.min(x + width, this.frameWidth);
+		int newBottom = Math.min(y + height, this.frameHeight);
+		if (newLeft >= newRight || newTop >= newBottom)
+			return;
+
+		// Absorbs every rectangle touching the new one, until none is left.
+		int i = 0;
+		while (i < this.size) {
+			if (newLeft <= this.right[i] && this.left[i] <= newRight
+					&& newTop <= this.bottom[i] && this.top[i] <= newBottom) {
+				newLeft = Math.min(newLeft, this.left[i]);
+				newTop = Math.min(newTop, this.top[i]);
+				newRight = Math.max(newRight, this.right[i]);
+				newBottom = Math.max(newBottom, this.bottom[i]);
+				remove(i);
+				i = 0;
+			} else {
+				i++;
+			}
+		}
+
+		if (this.size == MAX_RECTANGLES) {
+			// Too many pieces, merges everything into one.
+			for (i = 0; i < this.size; i++) {
+				newLeft = Math.min(newLeft, this.left[i]);
+				newTop = Math.min(newTop, this.top[i]);
+				newRight = Math.max(newRight, this.right[i]);
+				newBottom = Math.max(newBottom, this.bottom[i]);
+			}
+			this.size = 0;
+		}
+
+		this.left[this.size] = newLeft;
+		this.top[this.size] = newTop;
+		this.right[this.size] = newRight;
+		this.bottom[this.size] = newBottom;
+		this.size++;
+	}
+
+	/**
+	 * Removes a rectangle, moving the last one to its place.
+	 *
+	 * @param index
+	 *            Rectangle to remove.
+	 */
+	private void remove(final int index) {
+		this.size--;
+		this.left[index] = this.left[this.size];
+		this.top[index] = this.top[this.size];
+		this.right[index] = this.right[this.size];
+		this.bottom[index] = this.bottom[this.size];
+	}
+
+	/**
+	 * Getter for the number of rectangles.
+	 *
+	 * @return Number of rectangles in the region.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter for the left side of a rectangle.
+	 *
+	 * @param index
+	 *            Rectangle to check.
+	 * @return Position in the x-axis of the left side.
+	 */
+	int getX(final int index) {
+		return this.left[index];
+	}
+
+	/**
+	 * Getter for the upper side of a rectangle.
+	 *
+	 * @param index
+	 *            Rectangle to check.
+	 * @return Position in the y-axis of the upper side.
+	 */
+	int getY(final int index) {
+		return this.top[index];
+	}
+
+	/**
+	 * Getter for the width of a rectangle.
+	 *
+	 * @param index
+	 *            Rectangle to check.
+	 * @return Width of the rectangle.
+	 */
+	int getWidth(final int index) {
+		return this.right[index] - this.left[index];
+	}
+
+	/**
+	 * Getter for the height of a rectangle.
+	 *
+	 * @param index
+	 *            Rectangle to check.
+	 * @return Height of the rectangle.
+	 */
+	int getHeight(final int index) {
+		return this.bottom[index] - this.top[index];
+	}
+
+	/**
+	 * Getter for the number of pixels covered by the region.
+	 *
+	 * @return Total area of the rectangles.
+	 */
+	int getArea() {
+		int area = 0;
+		for (int i = 0; i < this.size; i++)
+			area += getWidth(i) * getHeight(i);
+		return area;
+	}
+}
@@ -0,0 +1,288 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Implements a drawing operation recorded during a frame, to be executed
+ * when the frame is completed. Commands are reused between frames.
+ */
+final class DrawCommand {
+
+	/** Kinds of drawing operations. */
+	static enum Type {
+		/** Draws a sprite. */
+		SPRITE,
+		/** Draws a pre-rendered image, i.e. a string. */
+		IMAGE,
+		/** Fills a rectangle. */
+		FILL
+	};
+
+	/** Kind of operation. */
+	private Type type;
+	/** Sprite drawn, if any. */
+	private SpriteType spriteType;
+	/** Color of the operation. */
+	private Color color;
+	/** Image drawn, if any. */
+	private BufferedImage image;
+	/** Position in the x-axis of the upper left corner of the area. */
+	private int positionX;
+	/** Position in the y-axis of the upper left corner of the area. */
+	private int positionY;
+	/** Width of the area affected. */
+	private int width;
+	/** Height of the area affected. */
+	private int height;
+
+	/**
+	 * Makes the command draw a sprite.
+	 *
+	 * @param newSpriteType
+	 *            Sprite to draw.
+	 * @param newColor
+	 *            Color of the sprite.
+	 * @param newPositionX
+	 *            Coordinates for the left side of the sprite.
+	 * @param newPositionY
+	 *            Coordinates for the upper side of the sprite.
+	 * @param newWidth
+	 *            Width of the sprite.
+	 * @param newHeight
+	 *            Height of the sprite.
+	 */
+	void setSprite(final SpriteType newSpriteType, final Color newColor,
+			final int newPositionX, final int newPositionY,
+			final int newWidth, final int newHeight) {
+		set(Type.SPRITE, newColor, newPositionX, newPositionY, newWidth,
+				newHeight);
+		this.spriteType = newSpriteType;
+	}
+
+	/**
+	 * Makes the command draw a pre-rendered image.
+	 *
+	 * @param newImage
+	 *            Image to draw.
+	 * @param newPositionX
+	 *            Coordinates for the left side of the image.
+	 * @param newPositionY
+	 *            Coordinates for the upper side of the image.
+	 */
+	void setImage(final BufferedImage newImage, final int newPositionX,
+			final int newPositionY) {
+		set(Type.IMAGE, null, newPositionX, newPositionY, newImage.getWidth(),
+				newImage.getHeight());
+		this.image = newImage;
+	}
+
+	/**
+	 * Makes the command fill a rectangle.
+	 *
+	 * @param newColor
+	 *            Color of the rectangle.
+	 * @param newPositionX
+	 *            Coordinates for the left side of the rectangle.
+	 * @param newPositionY
+	 *            Coordinates for the upper side of the rectangle.
+	 * @param newWidth
+	 *            Width of the rectangle.
+	 * @param newHeight
+	 *            Height of the rectangle.
+	 */
+	void setFill(final Color newColor, final int newPositionX,
+			final int newPositionY, final int newWidth, final int newHeight) {
+		set(Type.FILL, newColor, newPositionX, newPositionY, newWidth,
+				newHeight);
+	}
+
+	/**
+	 * Sets the properties shared by every kind of command, and clears the
+	 * rest.
+	 *
+	 * @param newType
+	 *            Kind of operation.
+	 * @param newColor
+	 *            Color of the operation.
+	 * @param newPositionX
+	 *            Position in the x-axis of the area affected.
+	 * @param newPositionY
+	 *            Position in the y-axis of the area affected.
+	 * @param newWidth
+	 *            Width of the area affected.
+	 * @param newHeight
+	 *            Height of the area affected.
+	 */
+	private void set(final Type newType, final Color newColor,
+			final int newPositionX, final int newPositionY,
+			final int newWidth, final int newHeight) {
+		this.type = newType;
+		this.color = newColor;
+		this.positionX = newPositionX;
+		this.positionY = newPositionY;
+		this.width = newWidth;
+		this.height = newHeight;
+		this.spriteType = null;
+		this.image = null;
+	}
+
+	/**
+	 * Makes the command a copy of another one.
+	 *
+	 * @param other
+	 *            Command to copy.
+	 */
+	void copy(final DrawCommand other) {
+		set(other.type, other.color, other.positionX, other.positionY,
+				other.width, other.height);
+		this.spriteType = other.spriteType;
+		this.image = other.image;
+	}
+
+	/**
+	 * Checks if another command draws exactly the same.
+	 *
+	 * @param other
+	 *            Command to compare with.
+	 * @return True if both commands produce the same pixels.
+	 */
+	boolean drawsSameAs(final DrawCommand other) {
+		return this.type == other.type
+				&& this.spriteType == other.spriteType
+				&& this.image == other.image
+				&& this.positionX == other.positionX
+				&& this.positionY == other.positionY
+				&& this.width == other.width
+				&& this.height == other.height
+				&& (this.color == null ? other.color == null : this.color
+						.equals(other.color));
+	}
+
+	/**
+	 * Adds everything the command draws to a hash.
+	 *
+	 * @param hash
+	 *            Hash of the commands before this one.
+	 * @return Hash including this command.
+	 */
+	long hash(final long hash) {
+		long result = mix(hash, this.type.ordinal());
+		result = mix(result, this.spriteType == null ? -1
+				: this.spriteType.ordinal());
+		result = mix(result, this.color == null ? 0 : this.color.getRGB());
+		result = mix(result, System.identityHashCode(this.image));
+		result = mix(result, this.positionX);
+		result = mix(result, this.positionY);
+		result = mix(result, this.width);
+		return mix(result, this.height);
+	}
+
+	/**
+	 * Adds a value to a 64 bit FNV-1a hash.
+	 *
+	 * @param hash
+	 *            Hash until now.
+	 * @param value
+	 *            Value to add.
+	 * @return New hash.
+	 */
+	private static long mix(final long hash, final int value) {
+		return (hash ^ value) * 0x100000001B3L;
+	}
+
+	/**
+	 * Checks if another command can be drawn without changing the sprite,
+	 * image or color in use.
+	 *
+	 * @param other
+	 *            Command drawn before, may be null.
+	 * @return True if both commands draw with the same state.
+	 */
+	boolean usesSameStateAs(final DrawCommand other) {
+		return other != null && this.type == other.type
+				&& this.spriteType == other.spriteType
+				&& this.image == other.image
+				&& (this.color == null ? other.color == null : this.color
+						.equals(other.color));
+	}
+
+	/**
+	 * Checks if the area affected by the command intersects a rectangle.
+	 *
+	 * @param x
+	 *            Left side of the rectangle.
+	 * @param y
+	 *            Upper side of the rectangle.
+	 * @param rectangleWidth
+	 *            Width of the rectangle.
+	 * @param rectangleHeight
+	 *            Height of the rectangle.
+	 * @return True if they intersect.
+	 */
+	boolean intersects(final int x, final int y, final int rectangleWidth,
+			final int rectangleHeight) {
+		return this.positionX < x + rectangleWidth
+				&& x < this.positionX + this.width
+				&& this.positionY < y + rectangleHeight
+				&& y < this.positionY + this.height;
+	}
+
+	/**
+	 * @return the type
+	 */
+	Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return the spriteType
+	 */
+	SpriteType getSpriteType() {
+		return this.spriteType;
+	}
+
+	/**
+	 * @return the color
+	 */
+	Color getColor() {
+		return this.color;
+	}
+
+	/**
+	 * @return the image
+	 */
+	BufferedImage getImage() {
+		return this.image;
+	}
+
+	/**
+	 * @return the positionX
+	 */
+	int getPositionX() {
+		return this.positionX;
+	}
+
+	/**
+	 * @return the positionY
+	 */
+	int getPositionY() {
+		return this.positionY;
+	}
+
+	/**
+	 * @return the width
+	 */
+	int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * @return the height
+	 */
+	int getHeight() {
+		return this.height;
+	}
+}
@@ -0,0 +1,267 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the commands recorded during a frame, and the size of the frame.
+ * Commands are kept when the list is cleared, and reused for the next
+ * frame.
+ */
+final class DrawCommandList {
+
+	/** Bits of a sort key holding the position in the run. */
+	private static final int INDEX_BITS = 24;
+	/** Bits of a sort key holding the state of the sprite. */
+	private static final int STATE_BITS = 14;
+
+	/** Every command created until now. */
+	private List<DrawCommand> commands;
+	/** Number of commands in use. */
+	private int size;
+	/** Width of the frame. */
+	private int width;
+	/** Height of the frame. */
+	private int height;
+	/** Sort keys of a run of sprites, reused between frames. */
+	private long[] sortKeys;
+	/** Commands of a run of sprites while being sorted, reused. */
+	private DrawCommand[] sortedRun;
+	/** State of each sprite of the run, as an index in stateSprites. */
+	private int[] sortStates;
+	/** Layer of each sprite of the run. */
+	private int[] sortLayers;
+	/** First sprite of the run found with each state. */
+	private DrawCommand[] stateSprites;
+	/** Upper side and position in the run of each sprite, sorted. */
+	private long[] rowKeys;
+
+	/**
+	 * Constructor, creates an empty list.
+	 */
+	DrawCommandList() {
+		this.commands = new ArrayList<DrawCommand>();
+		this.size = 0;
+		this.sortKeys = new long[0];
+		this.sortedRun = new DrawCommand[0];
+		this.sortStates = new int[0];
+		this.sortLayers = new int[0];
+		this.stateSprites = new DrawCommand[0];
+		this.rowKeys = new long[0];
+	}
+
+	/**
+	 * Returns an unused command, added at the end of the list.
+	 *
+	 * @return Command to fill in.
+	 */
+	DrawCommand add() {
+		if (this.size == this.commands.size())
+			this.commands.add(new DrawCommand());
+		return this.commands.get(this.size++);
+	}
+
+	/**
+	 * Getter for a command.
+	 *
+	 * @param index
+	 *            Position of the command in the list.
+	 * @return Command at the given position.
+	 */
+	DrawCommand get(final int index) {
+		return this.commands.get(index);
+	}
+
+	/**
+	 * Getter for the number of commands in the list.
+	 *
+	 * @return Number of commands.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter for the width of the frame.
+	 *
+	 * @return Width of the frame.
+	 */
+	int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Getter for the height of the frame.
+	 *
+	 * @return Height of the frame.
+	 */
+	int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Empties the list for a new frame, keeping the commands for reuse.
+	 *
+	 * @param newWidth
+	 *            Width of the new frame.
+	 * @param newHeight
+	 *            Height of the new frame.
+	 */
+	void clear(final int newWidth, final int newHeight) {
+		this.size = 0;
+		this.width = newWidth;
+		this.height = newHeight;
+	}
+
+	/**
+	 * Makes the list a copy of another one.
+	 *
+	 * @param other
+	 *            List to copy.
+	 */
+	void copy(final DrawCommandList other) {
+		clear(other.width, other.height);
+		for (int i = 0; i < other.size; i++)
+			add().copy(other.get(i));
+	}
+
+	/**
+	 * Checks if another list draws exactly the same frame, command by
+	 * command.
+	 *
+	 * @param other
+	 *            List to compare with.
+	 * @return True if both lists produce the same pixels.
+	 */
+	boolean drawsSameAs(final DrawCommandList other) {
+		if (this.width != other.width || this.height != other.height
+				|| this.size != other.size)
+			return false;
+		for (int i = 0; i < this.size; i++)
+			if (!get(i).drawsSameAs(other.get(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Computes a hash of everything drawn by the frame, equal for frames
+	 * that draw the same.
+	 *
+	 * @return 64 bit hash of the frame.
+	 */
+	long hash() {
+		long hash = 0xCBF29CE484222325L;
+		hash = (hash ^ this.width) * 0x100000001B3L;
+		hash = (hash ^ this.height) * 0x100000001B3L;
+		for (int i = 0; i < this.size; i++)
+			hash = get(i).hash(hash);
+		return hash;
+	}
+
+	/**
+	 * Sorts every run of consecutive sprites by sprite type and color, so
+	 * sprites sharing the same state are drawn together, without changing
+	 * what is drawn on top where sprites overlap. Other commands stay in
+	 * place and keep the order of what is drawn before and after them.
+	 */
+	void sortSprites() {
+		int start = 0;
+		while (start < this.size) {
+			if (get(start).getType() != DrawCommand.Type.SPRITE) {
+				start++;
+				continue;
+			}
+			int end = start + 1;
+			while (end < this.size
+					&& get(end).getType() == DrawCommand.Type.SPRITE)
+				end++;
+			if (end - start > 1)
+				sortRun(start, end);
+			start = end;
+		}
+	}
+
+	/**
+	 * Sorts a run of sprites. Each sprite is put on a layer above every
+	 * earlier sprite it overlaps that uses a different state, and sprites
+	 * are sorted by layer, then type and color, then their position in the
+	 * run. Sprites of a layer with different states never overlap, and
+	 * those with the same state draw the same color, so drawing them in any
+	 * order gives the same picture. Only sprites close enough vertically
+	 * to overlap are compared, found among the sprites sorted by their
+	 * upper side.
+	 *
+	 * @param start
+	 *            First command of the run.
+	 * @param end
+	 *            Command after the last one of the run.
+	 */
+	private void sortRun(final int start, final int end) {
+		int length = end - start;
+		if (this.sortKeys.length < length) {
+			this.sortKeys = new long[length * 2];
+			this.sortedRun = new DrawCommand[length * 2];
+			this.sortStates = new int[length * 2];
+			this.sortLayers = new int[length * 2];
+			this.stateSprites = new DrawCommand[length * 2];
+			this.rowKeys = new long[length * 2];
+		}
+
+		int maxHeight = 0;
+		for (int i = 0; i < length; i++) {
+			DrawCommand command = get(start + i);
+			maxHeight = Math.max(maxHeight, command.getHeight());
+			this.rowKeys[i] = (long) command.getPositionY() << INDEX_BITS | i;
+		}
+		Arrays.sort(this.rowKeys, 0, length);
+
+		int numStates = 0;
+		for (int i = 0; i < length; i++) {
+			DrawCommand command = get(start + i);
+			int state = 0;
+			while (state < numStates
+					&& !command.usesSameStateAs(this.stateSprites[state]))
+				state++;
+			if (state == numStates)
+				this.stateSprites[numStates++] = command;
+			this.sortStates[i] = state;
+
+			int layer = 0;
+			int first = Arrays.binarySearch(this.rowKeys, 0, length,
+					(long) (command.getPositionY() - maxHeight + 1)
+							<< INDEX_BITS);
+			if (first < 0)
+				first = -first - 1;
+			for (int k = first; k < length && this.rowKeys[k] >> INDEX_BITS
+					< command.getPositionY() + command.getHeight(); k++) {
+				int j = (int) (this.rowKeys[k] & (1 << INDEX_BITS) - 1);
+				if (j >= i)
+					continue;
+				DrawCommand below = get(start + j);
+				if (this.sortStates[j] != state
+						&& this.sortLayers[j] >= layer
+						&& command.intersects(below.getPositionX(),
+								below.getPositionY(), below.getWidth(),
+								below.getHeight()))
+					layer = this.sortLayers[j] + 1;
+			}
+			this.sortLayers[i] = layer;
+
+			// Layer, state and position in the run, highest bits first.
+			this.sortKeys[i] = (long) layer << STATE_BITS + INDEX_BITS
+					| (long) state << INDEX_BITS | i;
+		}
+		Arrays.sort(this.sortKeys, 0, length);
+
+		for (int i = 0; i < numStates; i++)
+			this.stateSprites[i] = null;
+		for (int i = 0; i < length; i++)
+			this.sortedRun[i] = get(start + (int) (this.sortKeys[i]
+					& (1 << INDEX_BITS) - 1));
+		for (int i = 0; i < length; i++) {
+			this.commands.set(start + i, this.sortedRun[i]);
+			this.sortedRun[i] = null;
+		}
+	}
+}
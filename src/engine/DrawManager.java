@@ -4,17 +4,20 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.FontMetrics;
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 import screen.Screen;
 import entity.Entity;
-import entity.Ship;
 
 /**
  * Manages screen drawing.
@@ -32,12 +35,16 @@ public final class DrawManager {
 	private static FileManager fileManager;
 	/** Application logger. */
 	private static Logger logger;
-	/** Graphics context. */
-	private static Graphics graphics;
-	/** Buffer Graphics. */
-	private static Graphics backBufferGraphics;
-	/** Buffer image. */
-	private static BufferedImage backBuffer;
+	/** Color used by the next drawing operations. */
+	private static Color drawColor;
+	/** Renders and shows the recorded frames. */
+	private static Renderer renderer;
+	/** Point size of the normal sized font. */
+	private static final float FONT_REGULAR_SIZE = 14f;
+	/** Point size of the big sized font. */
+	private static final float FONT_BIG_SIZE = 24f;
+	/** Font loaded once, with every size derived from it. */
+	private static FontCache fontCache;
 	/** Normal sized font. */
 	private static Font fontRegular;
 	/** Normal sized font properties. */
@@ -48,7 +55,115 @@ public final class DrawManager {
 	private static FontMetrics fontBigMetrics;
 
 	/** Sprite types mapped to their images. */
-	private static Map<SpriteType, boolean[][]> spriteMap;
+	private static Map<SpriteType, Sprite> spriteMap;
+	/** Width of each sprite once drawn, indexed by sprite type ordinal. */
+	private static int[] spriteWidths;
+	/** Height of each sprite once drawn, indexed by sprite type ordinal. */
+	private static int[] spriteHeights;
+
+	/** Extra space around strings, for glyphs going past their bounds. */
+	private static final int TEXT_MARGIN = 2;
+	/** Pre-rendered images of the strings drawn. */
+	private static TextCache textCache;
+	/** Commands being recorded, of the frame or of a layer. */
+	private static DrawCommandList commands;
+	/** Commands of the frame, while a layer is being recorded. */
+	private static DrawCommandList frameCommands;
+	/** Cached layers of the current screen, by identifier. */
+	private static Map<Integer, Layer> layers;
+	/** Layer between its beginning and end, if any. */
+	private static Layer currentLayer;
+	/** Sprite images used for drawing layers. */
+	private static SpriteAtlas layerAtlas;
+	/** Number of times a layer was drawn again. */
+	private static int layerRedrawCount;
+	/** If only the areas that changed are repainted, chosen at startup. */
+	private static final boolean DIRTY_RECTANGLES = Boolean
+			.getBoolean("invaders.dirty");
+
+	/** How entities are drawn, chosen at startup. */
+	private static final RenderMode RENDER_MODE = Core.getOption(
+			"invaders.render", RenderMode.ATLAS);
+
+	/** How frames are shown, chosen at startup. */
+	private static final PresentMode PRESENT_MODE = Core.getOption(
+			"invaders.present", PresentMode.WINDOW);
+	/** Number of pages used for page flipping, 2 or 3. */
+	private static final int NUM_PAGES = Math.max(2,
+			Math.min(3, Integer.getInteger("invaders.pages", 2)));
+	/** Number of bands sprites are drawn on in parallel in raster mode. */
+	private static final int NUM_BANDS = Integer.getInteger("invaders.bands",
+			1);
+	/** What is done with the frames without a display, chosen at startup. */
+	private static final HeadlessMode HEADLESS_MODE = Core.getOption(
+			"invaders.headless", HeadlessMode.OFFSCREEN);
+
+	/** If frames are rendered on their own thread, chosen at startup. */
+	private static final boolean RENDER_THREAD = Boolean
+			.getBoolean("invaders.renderThread");
+	/** Maximum time the render thread waits for a frame, in nanoseconds. */
+	private static final long RENDER_WAIT = 100000000L;
+	/** Recorded frames passed to the render thread. */
+	private static TripleBuffer<DrawCommandList> frames;
+	/** Thread rendering the recorded frames, if any. */
+	private static Thread renderThread;
+	/** If the renderer images must be freed before the next frame. */
+	private static volatile boolean releaseRequested;
+
+	/** Total time spent rendering frames, in nanoseconds. */
+	private static AtomicLong totalRenderTime = new AtomicLong();
+	/** Number of frames rendered. */
+	private static AtomicInteger frameCount = new AtomicInteger();
+	/** Total number of pixels repainted. */
+	private static AtomicLong totalPixelsTouched = new AtomicLong();
+	/** Number of frames recorded but replaced before being rendered. */
+	private static AtomicInteger droppedFrameCount = new AtomicInteger();
+	/** Total number of commands recorded. */
+	private static AtomicLong totalCommands = new AtomicLong();
+	/** If frames equal to the last one are not shown, chosen at startup. */
+	private static final boolean SKIP_IDENTICAL = Boolean
+			.getBoolean("invaders.skipIdentical");
+	/** Most frames in a row not shown for being equal to the last one. */
+	private static final int MAX_SKIPPED_FRAMES = 30;
+	/** Number of frames not shown for being equal to the last one. */
+	private static int skippedFrameCount;
+	/** Records the frames shown, if chosen at startup. */
+	private static FrameRecorder recorder;
+	/** Total number of sprite, image or color changes while rendering. */
+	private static AtomicLong totalStateChanges = new AtomicLong();
+
+	/** Hash of the last frame shown. */
+	private long lastFrameHash;
+	/** Copy of the last frame shown, to compare frames with equal hashes. */
+	private DrawCommandList lastFrame = new DrawCommandList();
+	/** Number of frames in a row not shown. */
+	private int skippedInARow;
+
+	/** Ways of drawing entities. */
+	public static enum RenderMode {
+		/** One rectangle for each lit pixel of the sprite. */
+		PIXEL,
+		/** One blit of a pre-rasterized image of the sprite. */
+		ATLAS,
+		/** Sprite bitmasks written directly on the buffer pixels. */
+		RASTER
+	};
+
+	/** Ways of showing a finished frame. */
+	public static enum PresentMode {
+		/** Draws on the back buffer, then copies it to the window. */
+		WINDOW,
+		/** Draws on one of the frame pages, then flips them. */
+		STRATEGY
+	};
+
+	/** Ways of handling frames when there is no display. */
+	public static enum HeadlessMode {
+		/** Renders each frame on an image in memory. */
+		OFFSCREEN,
+		/** Ignores the frames, only the game logic runs. */
+		NONE
+	};
 
 	/** Sprite types. */
 	public static enum SpriteType {
@@ -84,30 +199,50 @@ public final class DrawManager {
 	private DrawManager() {
 		fileManager = Core.getFileManager();
 		logger = Core.getLogger();
+		frames = new TripleBuffer<DrawCommandList>(new DrawCommandList(),
+				new DrawCommandList(), new DrawCommandList());
+		commands = frames.getBack();
+		layers = new HashMap<Integer, Layer>();
+		startRecording();
 		logger.info("Started loading resources.");
 
 		try {
-			spriteMap = new LinkedHashMap<SpriteType, boolean[][]>();
-
-			spriteMap.put(SpriteType.Ship, new boolean[13][8]);
-			spriteMap.put(SpriteType.ShipDestroyed, new boolean[13][8]);
-			spriteMap.put(SpriteType.Bullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyBullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyShipA1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipA2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipSpecial, new boolean[16][7]);
-			spriteMap.put(SpriteType.Explosion, new boolean[13][7]);
+			spriteMap = new LinkedHashMap<SpriteType, Sprite>();
+
+			spriteMap.put(SpriteType.Ship, new Sprite(13, 8));
+			spriteMap.put(SpriteType.ShipDestroyed, new Sprite(13, 8));
+			spriteMap.put(SpriteType.Bullet, new Sprite(3, 5));
+			spriteMap.put(SpriteType.EnemyBullet, new Sprite(3, 5));
+			spriteMap.put(SpriteType.EnemyShipA1, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipA2, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipB1, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipB2, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipC1, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipC2, new Sprite(12, 8));
+			spriteMap.put(SpriteType.EnemyShipSpecial, new Sprite(16, 7));
+			spriteMap.put(SpriteType.Explosion, new Sprite(13, 7));
 
 			fileManager.loadSprite(spriteMap);
+			layerAtlas = new SpriteAtlas(spriteMap);
+			spriteWidths = new int[SpriteType.values().length];
+			spriteHeights = new int[SpriteType.values().length];
+			for (Map.Entry<SpriteType, Sprite> sprite : spriteMap
+					.entrySet()) {
+				int index = sprite.getKey().ordinal();
+				spriteWidths[index] = sprite.getValue().getWidth()
+						* SpriteAtlas.SCALE;
+				spriteHeights[index] = sprite.getValue().getHeight()
+						* SpriteAtlas.SCALE;
+			}
 			logger.info("Finished loading the sprites.");
 
 			// Font loading.
-			fontRegular = fileManager.loadFont(14f);
-			fontBig = fileManager.loadFont(24f);
+			fontCache = new FontCache(fileManager.loadFont());
+			fontRegular = fontCache.getFont(FONT_REGULAR_SIZE);
+			fontRegularMetrics = fontCache.getMetrics(FONT_REGULAR_SIZE);
+			fontBig = fontCache.getFont(FONT_BIG_SIZE);
+			fontBigMetrics = fontCache.getMetrics(FONT_BIG_SIZE);
+			textCache = new TextCache(TEXT_MARGIN, fontCache);
 			logger.info("Finished loading the fonts.");
 
 		} catch (IOException e) {
@@ -136,42 +271,282 @@ public final class DrawManager {
 	 */
 	public void setFrame(final Frame currentFrame) {
 		frame = currentFrame;
+		setRenderer(new AwtRenderer(frame, RENDER_MODE, spriteMap,
+				DIRTY_RECTANGLES, PRESENT_MODE, NUM_PAGES, NUM_BANDS,
+				recorder));
+	}
+
+	/**
+	 * Prepares drawing without a display, rendering the frames in memory or
+	 * ignoring them as chosen at startup.
+	 */
+	public void setHeadless() {
+		if (HEADLESS_MODE == HeadlessMode.NONE)
+			setRenderer(new NullRenderer());
+		else
+			setRenderer(new OffscreenRenderer(RENDER_MODE, spriteMap,
+					DIRTY_RECTANGLES, NUM_BANDS, recorder));
 	}
 
 	/**
-	 * First part of the drawing process. Initialices buffers, draws the
-	 * background and prepares the images.
+	 * Starts recording the frames shown if a format was chosen at startup,
+	 * with -Dinvaders.record=rle or png, in the directory given by
+	 * invaders.recordDir.
+	 */
+	private void startRecording() {
+		if (System.getProperty("invaders.record") == null)
+			return;
+
+		FrameRecorder.Format format = Core.getOption("invaders.record",
+				FrameRecorder.Format.RLE);
+		File directory = new File(System.getProperty("invaders.recordDir",
+				"recording"));
+		try {
+			recorder = new FrameRecorder(format, directory);
+			// Closing the window exits without going through Core.
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					stopRecording();
+				}
+			}, "Recording shutdown"));
+		} catch (IOException e) {
+			logger.warning("Could not start recording in "
+					+ directory.getAbsolutePath() + ".");
+		}
+	}
+
+	/**
+	 * Finishes writing the recorded frames, if recording. Called before
+	 * exiting, and again on shutdown for exits that skip it.
+	 */
+	public void stopRecording() {
+		if (recorder != null)
+			recorder.close();
+	}
+
+	/**
+	 * Sets the renderer of the recorded frames, and starts the render thread
+	 * if chosen at startup.
+	 * 
+	 * @param newRenderer
+	 *            Renderer to use.
+	 */
+	private void setRenderer(final Renderer newRenderer) {
+		renderer = newRenderer;
+		logger.info("Rendering frames with "
+				+ renderer.getClass().getSimpleName() + ".");
+
+		if (RENDER_THREAD && renderThread == null) {
+			renderThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					renderFrames();
+				}
+			}, "Render");
+			renderThread.setDaemon(true);
+			renderThread.start();
+			logger.info("Rendering frames on their own thread.");
+		}
+	}
+
+	/**
+	 * Renders the latest recorded frame each time there is a new one, on the
+	 * render thread.
+	 */
+	private void renderFrames() {
+		while (true) {
+			DrawCommandList renderedCommands = frames.take();
+			if (renderedCommands != null)
+				render(renderedCommands);
+			else
+				LockSupport.parkNanos(this, RENDER_WAIT);
+		}
+	}
+
+	/**
+	 * First part of the drawing process. Starts recording the operations of
+	 * a new frame.
 	 * 
 	 * @param screen
 	 *            Screen to draw in.
 	 */
 	public void initDrawing(final Screen screen) {
-		backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
-				BufferedImage.TYPE_INT_RGB);
+		commands.clear(screen.getWidth(), screen.getHeight());
 
-		graphics = frame.getGraphics();
-		backBufferGraphics = backBuffer.getGraphics();
+		// drawBorders(screen);
+		// drawGrid(screen);
+	}
 
-		backBufferGraphics.setColor(Color.BLACK);
-		backBufferGraphics
-				.fillRect(0, 0, screen.getWidth(), screen.getHeight());
+	/**
+	 * Starts a layer, a group of drawings kept as a single image. The
+	 * drawings between this and {@link #endLayer()} only need to be made when
+	 * this returns true, that is, when the version of the layer changed.
+	 * Layers can not be nested.
+	 * 
+	 * @param screen
+	 *            Screen to draw on.
+	 * @param layerId
+	 *            Identifier of the layer, unique in the screen.
+	 * @param version
+	 *            Value of everything the drawings in the layer depend on.
+	 * @return True if the drawings of the layer have to be made.
+	 */
+	public boolean beginLayer(final Screen screen, final int layerId,
+			final long version) {
+		currentLayer = layers.get(layerId);
+		if (currentLayer == null) {
+			currentLayer = new Layer();
+			layers.put(layerId, currentLayer);
+		}
+		if (currentLayer.isCurrent(version))
+			return false;
 
-		fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
-		fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
+		frameCommands = commands;
+		commands = currentLayer.begin(version, screen.getWidth(),
+				screen.getHeight());
+		layerRedrawCount++;
+		return true;
+	}
 
-		// drawBorders(screen);
-		// drawGrid(screen);
+	/**
+	 * Ends the current layer, drawing it again if needed, and records its
+	 * image to be drawn.
+	 */
+	public void endLayer() {
+		if (frameCommands != null) {
+			currentLayer.finish(layerAtlas);
+			commands = frameCommands;
+			frameCommands = null;
+		}
+		if (currentLayer.getImage() != null)
+			commands.add().setImage(currentLayer.getImage(),
+					currentLayer.getPositionX(), currentLayer.getPositionY());
+		currentLayer = null;
 	}
 
 	/**
-	 * Draws the completed drawing on screen.
+	 * Draws the completed drawing on screen, or passes it to the render
+	 * thread if there is one.
 	 * 
 	 * @param screen
 	 *            Screen to draw on.
 	 */
 	public void completeDrawing(final Screen screen) {
-		graphics.drawImage(backBuffer, frame.getInsets().left,
-				frame.getInsets().top, frame);
+		commands.sortSprites();
+		totalCommands.addAndGet(commands.size());
+
+		if (SKIP_IDENTICAL && isSameAsLastFrame()) {
+			skippedFrameCount++;
+			return;
+		}
+
+		if (renderThread != null) {
+			if (frames.publish())
+				droppedFrameCount.incrementAndGet();
+			commands = frames.getBack();
+			LockSupport.unpark(renderThread);
+		} else {
+			render(commands);
+		}
+	}
+
+	/**
+	 * Checks if the recorded frame draws the same as the last one shown, so
+	 * showing it can be skipped. Frames are shown anyway after some skipped
+	 * in a row, or when the window needs to be painted again.
+	 * 
+	 * @return True if the frame does not need to be shown.
+	 */
+	private boolean isSameAsLastFrame() {
+		long hash = commands.hash();
+		// Equal hashes are only a hint, the frames are compared in full.
+		boolean same = hash == this.lastFrameHash
+				&& commands.drawsSameAs(this.lastFrame);
+		boolean skip = same && this.skippedInARow < MAX_SKIPPED_FRAMES
+				&& !releaseRequested && (frame == null || !frame.isExposed());
+
+		if (!same) {
+			this.lastFrameHash = hash;
+			this.lastFrame.copy(commands);
+		}
+		this.skippedInARow = skip ? this.skippedInARow + 1 : 0;
+		return skip;
+	}
+
+	/**
+	 * Executes the commands of a frame, and shows it.
+	 * 
+	 * @param renderedCommands
+	 *            Commands of the frame, not modified while rendering.
+	 */
+	private void render(final DrawCommandList renderedCommands) {
+		long startTime = System.nanoTime();
+
+		if (releaseRequested) {
+			releaseRequested = false;
+			renderer.release();
+		}
+		renderer.render(renderedCommands);
+
+		totalPixelsTouched.addAndGet(renderer.getPixelsRepainted());
+		totalStateChanges.addAndGet(renderer.getStateChanges());
+		long renderTime = System.nanoTime() - startTime;
+		totalRenderTime.addAndGet(renderTime);
+		Core.getFrameStats().record(FrameStats.Phase.PRESENT, renderTime);
+		frameCount.incrementAndGet();
+	}
+
+	/**
+	 * Frees the cached layers, and the images of the renderer before the
+	 * next frame, called when the screen shown changes.
+	 */
+	public void releaseBackBuffer() {
+		releaseRequested = true;
+		layers.clear();
+	}
+
+	/**
+	 * Logs the average time spent drawing a frame since the last call, and
+	 * starts counting again.
+	 */
+	public void logFrameStatistics() {
+		int renderedFrames = frameCount.getAndSet(0);
+		long renderTime = totalRenderTime.getAndSet(0);
+		long pixelsTouched = totalPixelsTouched.getAndSet(0);
+		int droppedFrames = droppedFrameCount.getAndSet(0);
+		long commandCount = totalCommands.getAndSet(0);
+		long stateChanges = totalStateChanges.getAndSet(0);
+		int layerRedraws = layerRedrawCount;
+		layerRedrawCount = 0;
+		int skippedFrames = skippedFrameCount;
+		skippedFrameCount = 0;
+		int recordedFrames = renderedFrames + droppedFrames + skippedFrames;
+
+		if (renderedFrames > 0)
+			logger.info("Rendered " + renderedFrames + " frames in "
+					+ RENDER_MODE.toString().toLowerCase() + " mode with "
+					+ renderer.getClass().getSimpleName() + ", "
+					+ renderTime / renderedFrames / 1000
+					+ " microseconds and "
+					+ pixelsTouched / renderedFrames
+					+ " pixels repainted per frame on average, with "
+					+ commandCount / recordedFrames
+					+ " commands and " + stateChanges / renderedFrames
+					+ " state changes. Layers were drawn " + layerRedraws
+					+ " times.");
+		renderer.logStatistics();
+		if (SKIP_IDENTICAL)
+			logger.info("Skipped " + skippedFrames + " of " + recordedFrames
+					+ " frames, equal to the last one shown ("
+					+ skippedFrames * 100 / Math.max(1, recordedFrames)
+					+ "%).");
+		if (recorder != null)
+			logger.info(recorder.getWrittenCount() + " frames recorded and "
+					+ recorder.getDroppedCount() + " dropped until now.");
+		if (renderThread != null)
+			logger.info(droppedFrames + " recorded frames were replaced"
+					+ " before the render thread took them.");
 	}
 
 	/**
@@ -186,14 +561,141 @@ public final class DrawManager {
 	 */
 	public void drawEntity(final Entity entity, final int positionX,
 			final int positionY) {
-		boolean[][] image = spriteMap.get(entity.getSpriteType());
+		drawSprite(entity.getSpriteType(), entity.getColor(), positionX,
+				positionY);
+	}
+
+	/**
+	 * Records a sprite to be drawn.
+	 * 
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param color
+	 *            Color of the sprite.
+	 * @param positionX
+	 *            Coordinates for the left side of the image.
+	 * @param positionY
+	 *            Coordinates for the upper side of the image.
+	 */
+	private void drawSprite(final SpriteType spriteType, final Color color,
+			final int positionX, final int positionY) {
+		commands.add().setSprite(spriteType, color, positionX, positionY,
+				spriteWidths[spriteType.ordinal()],
+				spriteHeights[spriteType.ordinal()]);
+	}
+
+	/**
+	 * Records a string to be drawn, with the current color.
+	 * 
+	 * @param string
+	 *            String to draw.
+	 * @param font
+	 *            Font of the string.
+	 * @param positionX
+	 *            Coordinates for the left side of the string.
+	 * @param positionY
+	 *            Coordinates for the baseline of the string.
+	 */
+	private void drawString(final String string, final Font font,
+			final int positionX, final int positionY) {
+		drawTextImage(textCache.getImage(string, font, drawColor), font,
+				positionX, positionY);
+	}
+
+	/**
+	 * Records an image of a string to be drawn.
+	 * 
+	 * @param image
+	 *            Image of the string, from the text cache.
+	 * @param font
+	 *            Font of the string.
+	 * @param positionX
+	 *            Coordinates for the left side of the string.
+	 * @param positionY
+	 *            Coordinates for the baseline of the string.
+	 */
+	private void drawTextImage(final BufferedImage image, final Font font,
+			final int positionX, final int positionY) {
+		commands.add().setImage(image, positionX - TEXT_MARGIN,
+				positionY - textCache.getAscent(font) - TEXT_MARGIN);
+	}
+
+	/**
+	 * Records a number to be drawn with the current color, one digit at a
+	 * time, so no string is created.
+	 * 
+	 * @param number
+	 *            Number to draw, not negative.
+	 * @param minDigits
+	 *            Minimum number of digits, filled with zeros on the left.
+	 * @param font
+	 *            Font of the number.
+	 * @param positionX
+	 *            Coordinates for the left side of the number.
+	 * @param positionY
+	 *            Coordinates for the baseline of the number.
+	 */
+	private void drawNumber(final int number, final int minDigits,
+			final Font font, final int positionX, final int positionY) {
+		int divisor = 1;
+		for (int digits = 1; digits < minDigits || number / divisor >= 10;
+				digits++)
+			divisor *= 10;
+
+		int digitX = positionX;
+		for (; divisor > 0; divisor /= 10) {
+			BufferedImage image = textCache.getDigitImage(number / divisor
+					% 10, font, drawColor);
+			drawTextImage(image, font, digitX, positionY);
+			digitX += textCache.getWidth(image);
+		}
+	}
+
+	/**
+	 * Records a string to be drawn centered, with the current color.
+	 * 
+	 * @param screen
+	 *            Screen to draw on.
+	 * @param string
+	 *            String to draw.
+	 * @param font
+	 *            Font of the string.
+	 * @param height
+	 *            Height of the drawing.
+	 */
+	private void drawCenteredString(final Screen screen, final String string,
+			final Font font, final int height) {
+		BufferedImage image = textCache.getImage(string, font, drawColor);
+		drawTextImage(image, font, screen.getWidth() / 2
+				- textCache.getWidth(image) / 2, height);
+	}
+
+	/**
+	 * Records a rectangle to be filled with the current color.
+	 * 
+	 * @param positionX
+	 *            Coordinates for the left side of the rectangle.
+	 * @param positionY
+	 *            Coordinates for the upper side of the rectangle.
+	 * @param width
+	 *            Width of the rectangle.
+	 * @param height
+	 *            Height of the rectangle.
+	 */
+	private void fillRect(final int positionX, final int positionY,
+			final int width, final int height) {
+		commands.add().setFill(drawColor, positionX, positionY, width,
+				height);
+	}
 
-		backBufferGraphics.setColor(entity.getColor());
-		for (int i = 0; i < image.length; i++)
-			for (int j = 0; j < image[i].length; j++)
-				if (image[i][j])
-					backBufferGraphics.drawRect(positionX + i * 2, positionY
-							+ j * 2, 1, 1);
+	/**
+	 * Sets the color of the next drawing operations.
+	 * 
+	 * @param color
+	 *            New color.
+	 */
+	private void setColor(final Color color) {
+		drawColor = color;
 	}
 
 	/**
@@ -204,13 +706,11 @@ public final class DrawManager {
 	 */
 	@SuppressWarnings("unused")
 	private void drawBorders(final Screen screen) {
-		backBufferGraphics.setColor(Color.GREEN);
-		backBufferGraphics.drawLine(0, 0, screen.getWidth() - 1, 0);
-		backBufferGraphics.drawLine(0, 0, 0, screen.getHeight() - 1);
-		backBufferGraphics.drawLine(screen.getWidth() - 1, 0,
-				screen.getWidth() - 1, screen.getHeight() - 1);
-		backBufferGraphics.drawLine(0, screen.getHeight() - 1,
-				screen.getWidth() - 1, screen.getHeight() - 1);
+		setColor(Color.GREEN);
+		fillRect(0, 0, screen.getWidth(), 1);
+		fillRect(0, 0, 1, screen.getHeight());
+		fillRect(screen.getWidth() - 1, 0, 1, screen.getHeight());
+		fillRect(0, screen.getHeight() - 1, screen.getWidth(), 1);
 	}
 
 	/**
@@ -221,11 +721,11 @@ public final class DrawManager {
 	 */
 	@SuppressWarnings("unused")
 	private void drawGrid(final Screen screen) {
-		backBufferGraphics.setColor(Color.DARK_GRAY);
+		setColor(Color.DARK_GRAY);
 		for (int i = 0; i < screen.getHeight() - 1; i += 2)
-			backBufferGraphics.drawLine(0, i, screen.getWidth() - 1, i);
+			fillRect(0, i, screen.getWidth(), 1);
 		for (int j = 0; j < screen.getWidth() - 1; j += 2)
-			backBufferGraphics.drawLine(j, 0, j, screen.getHeight() - 1);
+			fillRect(j, 0, 1, screen.getHeight());
 	}
 
 	/**
@@ -237,10 +737,8 @@ public final class DrawManager {
 	 *            Current score.
 	 */
 	public void drawScore(final Screen screen, final int score) {
-		backBufferGraphics.setFont(fontRegular);
-		backBufferGraphics.setColor(Color.WHITE);
-		String scoreString = String.format("%04d", score);
-		backBufferGraphics.drawString(scoreString, screen.getWidth() - 60, 25);
+		setColor(Color.WHITE);
+		drawNumber(score, 4, fontRegular, screen.getWidth() - 60, 25);
 	}
 
 	/**
@@ -252,12 +750,10 @@ public final class DrawManager {
 	 *            Current lives.
 	 */
 	public void drawLives(final Screen screen, final int lives) {
-		backBufferGraphics.setFont(fontRegular);
-		backBufferGraphics.setColor(Color.WHITE);
-		backBufferGraphics.drawString(Integer.toString(lives), 20, 25);
-		Ship dummyShip = new Ship(0, 0);
+		setColor(Color.WHITE);
+		drawNumber(lives, 1, fontRegular, 20, 25);
 		for (int i = 0; i < lives; i++)
-			drawEntity(dummyShip, 40 + 35 * i, 10);
+			drawSprite(SpriteType.Ship, Color.GREEN, 40 + 35 * i, 10);
 	}
 
 	/**
@@ -269,10 +765,8 @@ public final class DrawManager {
 	 *            Y coordinate of the line.
 	 */
 	public void drawHorizontalLine(final Screen screen, final int positionY) {
-		backBufferGraphics.setColor(Color.GREEN);
-		backBufferGraphics.drawLine(0, positionY, screen.getWidth(), positionY);
-		backBufferGraphics.drawLine(0, positionY + 1, screen.getWidth(),
-				positionY + 1);
+		setColor(Color.GREEN);
+		fillRect(0, positionY, screen.getWidth() + 1, 2);
 	}
 
 	/**
@@ -286,11 +780,11 @@ public final class DrawManager {
 		String instructionsString =
 				"select with w+s / arrows, confirm with space";
 
-		backBufferGraphics.setColor(Color.GRAY);
+		setColor(Color.GRAY);
 		drawCenteredRegularString(screen, instructionsString,
 				screen.getHeight() / 2);
 
-		backBufferGraphics.setColor(Color.GREEN);
+		setColor(Color.GREEN);
 		drawCenteredBigString(screen, titleString, screen.getHeight() / 3);
 	}
 
@@ -308,21 +802,21 @@ public final class DrawManager {
 		String exitString = "exit";
 
 		if (option == 2)
-			backBufferGraphics.setColor(Color.GREEN);
+			setColor(Color.GREEN);
 		else
-			backBufferGraphics.setColor(Color.WHITE);
+			setColor(Color.WHITE);
 		drawCenteredRegularString(screen, playString,
 				screen.getHeight() / 3 * 2);
 		if (option == 3)
-			backBufferGraphics.setColor(Color.GREEN);
+			setColor(Color.GREEN);
 		else
-			backBufferGraphics.setColor(Color.WHITE);
+			setColor(Color.WHITE);
 		drawCenteredRegularString(screen, highScoresString, screen.getHeight()
 				/ 3 * 2 + fontRegularMetrics.getHeight() * 2);
 		if (option == 0)
-			backBufferGraphics.setColor(Color.GREEN);
+			setColor(Color.GREEN);
 		else
-			backBufferGraphics.setColor(Color.WHITE);
+			setColor(Color.WHITE);
 		drawCenteredRegularString(screen, exitString, screen.getHeight() / 3
 				* 2 + fontRegularMetrics.getHeight() * 4);
 	}
@@ -354,7 +848,7 @@ public final class DrawManager {
 
 		int height = isNewRecord ? 4 : 2;
 
-		backBufferGraphics.setColor(Color.WHITE);
+		setColor(Color.WHITE);
 		drawCenteredRegularString(screen, scoreString, screen.getHeight()
 				/ height);
 		drawCenteredRegularString(screen, livesRemainingString,
@@ -382,10 +876,10 @@ public final class DrawManager {
 		String newRecordString = "New Record!";
 		String introduceNameString = "Introduce name:";
 
-		backBufferGraphics.setColor(Color.GREEN);
+		setColor(Color.GREEN);
 		drawCenteredRegularString(screen, newRecordString, screen.getHeight()
 				/ 4 + fontRegularMetrics.getHeight() * 10);
-		backBufferGraphics.setColor(Color.WHITE);
+		setColor(Color.WHITE);
 		drawCenteredRegularString(screen, introduceNameString,
 				screen.getHeight() / 4 + fontRegularMetrics.getHeight() * 12);
 
@@ -399,9 +893,9 @@ public final class DrawManager {
 
 		for (int i = 0; i < 3; i++) {
 			if (i == nameCharSelected)
-				backBufferGraphics.setColor(Color.GREEN);
+				setColor(Color.GREEN);
 			else
-				backBufferGraphics.setColor(Color.WHITE);
+				setColor(Color.WHITE);
 
 			positionX += fontRegularMetrics.getWidths()[name[i]] / 2;
 			positionX = i == 0 ? positionX
@@ -409,8 +903,7 @@ public final class DrawManager {
 							+ (fontRegularMetrics.getWidths()[name[i - 1]]
 									+ fontRegularMetrics.getWidths()[' ']) / 2;
 
-			backBufferGraphics.drawString(Character.toString(name[i]),
-					positionX,
+			drawString(Character.toString(name[i]), fontRegular, positionX,
 					screen.getHeight() / 4 + fontRegularMetrics.getHeight()
 							* 14);
 		}
@@ -434,14 +927,14 @@ public final class DrawManager {
 
 		int height = isNewRecord ? 4 : 2;
 
-		backBufferGraphics.setColor(Color.GREEN);
+		setColor(Color.GREEN);
 		drawCenteredBigString(screen, gameOverString, screen.getHeight()
 				/ height - fontBigMetrics.getHeight() * 2);
 
 		if (acceptsInput)
-			backBufferGraphics.setColor(Color.GREEN);
+			setColor(Color.GREEN);
 		else
-			backBufferGraphics.setColor(Color.GRAY);
+			setColor(Color.GRAY);
 		drawCenteredRegularString(screen, continueOrExitString,
 				screen.getHeight() / 2 + fontRegularMetrics.getHeight() * 10);
 	}
@@ -456,10 +949,10 @@ public final class DrawManager {
 		String highScoreString = "High Scores";
 		String instructionsString = "Press Space to return";
 
-		backBufferGraphics.setColor(Color.GREEN);
+		setColor(Color.GREEN);
 		drawCenteredBigString(screen, highScoreString, screen.getHeight() / 8);
 
-		backBufferGraphics.setColor(Color.GRAY);
+		setColor(Color.GRAY);
 		drawCenteredRegularString(screen, instructionsString,
 				screen.getHeight() / 5);
 	}
@@ -474,7 +967,7 @@ public final class DrawManager {
 	 */
 	public void drawHighScores(final Screen screen,
 			final List<Score> highScores) {
-		backBufferGraphics.setColor(Color.WHITE);
+		setColor(Color.WHITE);
 		int i = 0;
 		String scoreString = "";
 
@@ -499,9 +992,7 @@ public final class DrawManager {
 	 */
 	public void drawCenteredRegularString(final Screen screen,
 			final String string, final int height) {
-		backBufferGraphics.setFont(fontRegular);
-		backBufferGraphics.drawString(string, screen.getWidth() / 2
-				- fontRegularMetrics.stringWidth(string) / 2, height);
+		drawCenteredString(screen, string, fontRegular, height);
 	}
 
 	/**
@@ -516,9 +1007,7 @@ public final class DrawManager {
 	 */
 	public void drawCenteredBigString(final Screen screen, final String string,
 			final int height) {
-		backBufferGraphics.setFont(fontBig);
-		backBufferGraphics.drawString(string, screen.getWidth() / 2
-				- fontBigMetrics.stringWidth(string) / 2, height);
+		drawCenteredString(screen, string, fontBig, height);
 	}
 
 	/**
@@ -537,10 +1026,10 @@ public final class DrawManager {
 			final int number, final boolean bonusLife) {
 		int rectWidth = screen.getWidth();
 		int rectHeight = screen.getHeight() / 6;
-		backBufferGraphics.setColor(Color.BLACK);
-		backBufferGraphics.fillRect(0, screen.getHeight() / 2 - rectHeight / 2,
-				rectWidth, rectHeight);
-		backBufferGraphics.setColor(Color.GREEN);
+		setColor(Color.BLACK);
+		fillRect(0, screen.getHeight() / 2 - rectHeight / 2, rectWidth,
+				rectHeight);
+		setColor(Color.GREEN);
 		if (number >= 4)
 			if (!bonusLife) {
 				drawCenteredBigString(screen, "Level " + level,
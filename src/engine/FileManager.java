@@ -2,8 +2,11 @@ package engine;
 
 import java.awt.Font;
 import java.awt.FontFormatException;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -13,8 +16,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +45,13 @@ public final class FileManager {
 	private static Logger logger;
 	/** Max number of high scores. */
 	private static final int MAX_SCORES = 7;
+	/** Size of the blocks files are read in. */
+	private static final int READ_BLOCK_SIZE = 8192;
+	/** First value of sprite cache files. */
+	private static final int SPRITE_CACHE_MAGIC = 0x53505231;
+	/** If sprites are cached next to the jar, chosen at startup. */
+	private static final boolean SPRITE_CACHE = Boolean
+			.getBoolean("invaders.spriteCache");
 
 	/**
 	 * private constructor.
@@ -57,59 +72,239 @@ public final class FileManager {
 	}
 
 	/**
-	 * Loads sprites from disk.
+	 * Loads sprites from disk, from the cache next to the jar if enabled
+	 * and made from the same sprite file.
 	 * 
 	 * @param spriteMap
-	 *            Mapping of sprite type and empty boolean matrix that will
-	 *            contain the image.
+	 *            Mapping of sprite type and empty sprite that will contain
+	 *            the image.
 	 * @throws IOException
 	 *             In case of loading problems.
 	 */
-	public void loadSprite(final Map<SpriteType, boolean[][]> spriteMap)
+	public void loadSprite(final Map<SpriteType, Sprite> spriteMap)
 			throws IOException {
-		InputStream inputStream = null;
+		long startTime = System.nanoTime();
+		URL source = DrawManager.class.getClassLoader().getResource(
+				"graphics");
+		if (source == null)
+			throw new FileNotFoundException("Sprite file not found.");
+
+		URLConnection connection = source.openConnection();
+		long sourceModified = connection.getLastModified();
+		long sourceLength = connection.getContentLengthLong();
+		File cacheFile = null;
+		if (SPRITE_CACHE)
+			cacheFile = new File(getJarDirectory(), "graphics.cache");
+
+		boolean fromCache = cacheFile != null && readSpriteCache(cacheFile,
+				sourceModified, sourceLength, spriteMap);
+		if (!fromCache) {
+			InputStream inputStream = null;
+			try {
+				inputStream = connection.getInputStream();
+				parseSprites(readFully(inputStream), spriteMap);
+			} finally {
+				if (inputStream != null)
+					inputStream.close();
+			}
+			if (cacheFile != null)
+				writeSpriteCache(cacheFile, sourceModified, sourceLength,
+						spriteMap);
+		}
+
+		int packedBytes = 0;
+		int booleanBytes = 0;
+		for (Sprite sprite : spriteMap.values()) {
+			packedBytes += sprite.getPixelBytes();
+			booleanBytes += sprite.getWidth() * sprite.getHeight();
+		}
+		logger.info("Loaded " + spriteMap.size() + " sprites from "
+				+ (fromCache ? "cache" : "source") + " in "
+				+ (System.nanoTime() - startTime) / 1000 + " microseconds, "
+				+ packedBytes + " bytes of pixels (" + booleanBytes
+				+ " as boolean arrays).");
+	}
+
+	/**
+	 * Reads a whole stream in blocks.
+	 * 
+	 * @param inputStream
+	 *            Stream to read.
+	 * @return Contents of the stream.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	private static byte[] readFully(final InputStream inputStream)
+			throws IOException {
+		ByteArrayOutputStream contents = new ByteArrayOutputStream();
+		byte[] block = new byte[READ_BLOCK_SIZE];
+		int read;
+		while ((read = inputStream.read(block)) != -1)
+			contents.write(block, 0, read);
+		return contents.toByteArray();
+	}
+
+	/**
+	 * Reads the sprites from the contents of the sprite file, where each
+	 * sprite is listed column by column as 0s and 1s, ignoring any other
+	 * character.
+	 * 
+	 * @param data
+	 *            Contents of the sprite file.
+	 * @param spriteMap
+	 *            Mapping of sprite type and sprite to fill.
+	 * @throws IOException
+	 *             If the file ends before every sprite is read.
+	 */
+	private void parseSprites(final byte[] data,
+			final Map<SpriteType, Sprite> spriteMap) throws IOException {
+		int position = 0;
+
+		for (Map.Entry<SpriteType, Sprite> entry : spriteMap.entrySet()) {
+			Sprite sprite = entry.getValue();
+			long[] rows = new long[sprite.getHeight()];
+
+			for (int i = 0; i < sprite.getWidth(); i++)
+				for (int j = 0; j < sprite.getHeight(); j++) {
+					while (position < data.length && data[position] != '0'
+							&& data[position] != '1')
+						position++;
+					if (position == data.length)
+						throw new IOException("Sprite file too short.");
+
+					if (data[position++] == '1')
+						rows[j] |= 1L << i;
+				}
+			for (int j = 0; j < rows.length; j++)
+				sprite.setRow(j, rows[j]);
+			logger.fine("Sprite " + entry.getKey() + " loaded.");
+		}
+	}
+
+	/**
+	 * Reads the sprites from the cache file, if it was made from the same
+	 * sprite file and for sprites of the same sizes.
+	 * 
+	 * @param cacheFile
+	 *            Cache file.
+	 * @param sourceModified
+	 *            Modification time of the sprite file.
+	 * @param sourceLength
+	 *            Length of the sprite file.
+	 * @param spriteMap
+	 *            Mapping of sprite type and sprite to fill.
+	 * @return True if the sprites were read from the cache.
+	 */
+	private boolean readSpriteCache(final File cacheFile,
+			final long sourceModified, final long sourceLength,
+			final Map<SpriteType, Sprite> spriteMap) {
+		if (!cacheFile.isFile())
+			return false;
 
 		try {
-			inputStream = DrawManager.class.getClassLoader()
-					.getResourceAsStream("graphics");
-			char c;
-
-			// Sprite loading.
-			for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
-					.entrySet()) {
-				for (int i = 0; i < sprite.getValue().length; i++)
-					for (int j = 0; j < sprite.getValue()[i].length; j++) {
-						do
-							c = (char) inputStream.read();
-						while (c != '0' && c != '1');
-
-						if (c == '1')
-							sprite.getValue()[i][j] = true;
-						else
-							sprite.getValue()[i][j] = false;
-					}
-				logger.fine("Sprite " + sprite.getKey() + " loaded.");
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile
+					.toPath()));
+			if (buffer.getInt() != SPRITE_CACHE_MAGIC
+					|| buffer.getLong() != sourceModified
+					|| buffer.getLong() != sourceLength
+					|| buffer.getInt() != spriteMap.size())
+				return false;
+
+			// Checks every size before modifying any sprite.
+			int sizesPosition = buffer.position();
+			for (Sprite sprite : spriteMap.values()) {
+				if (buffer.getInt() != sprite.getWidth()
+						|| buffer.getInt() != sprite.getHeight())
+					return false;
+				buffer.position(buffer.position() + sprite.getPixelBytes());
 			}
-			if (inputStream != null)
-				inputStream.close();
+			buffer.position(sizesPosition);
+			for (Sprite sprite : spriteMap.values()) {
+				buffer.position(buffer.position() + 2 * Integer.SIZE
+						/ Byte.SIZE);
+				for (int j = 0; j < sprite.getHeight(); j++)
+					sprite.setRow(j, buffer.getLong());
+			}
+			return true;
+		} catch (IOException | BufferUnderflowException
+				| IllegalArgumentException e) {
+			logger.warning("Invalid sprite cache, loading from source.");
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the sprites to the cache file. Failing to do so is not an
+	 * error, they are loaded from source next time.
+	 * 
+	 * @param cacheFile
+	 *            Cache file.
+	 * @param sourceModified
+	 *            Modification time of the sprite file.
+	 * @param sourceLength
+	 *            Length of the sprite file.
+	 * @param spriteMap
+	 *            Mapping of sprite type and loaded sprite.
+	 */
+	private void writeSpriteCache(final File cacheFile,
+			final long sourceModified, final long sourceLength,
+			final Map<SpriteType, Sprite> spriteMap) {
+		DataOutputStream outputStream = null;
+
+		try {
+			outputStream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(cacheFile)));
+			outputStream.writeInt(SPRITE_CACHE_MAGIC);
+			outputStream.writeLong(sourceModified);
+			outputStream.writeLong(sourceLength);
+			outputStream.writeInt(spriteMap.size());
+			for (Sprite sprite : spriteMap.values()) {
+				outputStream.writeInt(sprite.getWidth());
+				outputStream.writeInt(sprite.getHeight());
+				for (int j = 0; j < sprite.getHeight(); j++)
+					outputStream.writeLong(sprite.getRow(j));
+			}
+			outputStream.close();
+			outputStream = null;
+			logger.info("Sprite cache written to " + cacheFile + ".");
+		} catch (IOException e) {
+			logger.warning("Couldn't write the sprite cache.");
 		} finally {
-			if (inputStream != null)
-				inputStream.close();
+			if (outputStream != null)
+				try {
+					outputStream.close();
+				} catch (IOException e) {
+					logger.warning("Couldn't close the sprite cache.");
+				}
 		}
 	}
 
 	/**
-	 * Loads a font of a given size.
+	 * Returns the directory of the jar, or of the classes, where the
+	 * application files such as the scores are kept.
+	 * 
+	 * @return Directory of the application.
+	 * @throws IOException
+	 *             In case the location can not be decoded.
+	 */
+	private static File getJarDirectory() throws IOException {
+		String jarPath = FileManager.class.getProtectionDomain()
+				.getCodeSource().getLocation().getPath();
+		jarPath = URLDecoder.decode(jarPath, "UTF-8");
+		return new File(jarPath).getParentFile();
+	}
+
+	/**
+	 * Loads the font, parsing it only once. Sizes are derived from it as
+	 * needed.
 	 * 
-	 * @param size
-	 *            Point size of the font.
-	 * @return New font.
+	 * @return New font, of 1 point.
 	 * @throws IOException
 	 *             In case of loading problems.
 	 * @throws FontFormatException
 	 *             In case of incorrect font format.
 	 */
-	public Font loadFont(final float size) throws IOException,
+	public Font loadFont() throws IOException,
 			FontFormatException {
 		InputStream inputStream = null;
 		Font font;
@@ -118,8 +313,7 @@ public final class FileManager {
 			// Font loading.
 			inputStream = FileManager.class.getClassLoader()
 					.getResourceAsStream("font.ttf");
-			font = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(
-					size);
+			font = Font.createFont(Font.TRUETYPE_FONT, inputStream);
 		} finally {
 			if (inputStream != null)
 				inputStream.close();
@@ -179,15 +373,7 @@ public final class FileManager {
 		BufferedReader bufferedReader = null;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			File scoresFile = new File(getJarDirectory(), "scores");
 			inputStream = new FileInputStream(scoresFile);
 			bufferedReader = new BufferedReader(new InputStreamReader(
 					inputStream, Charset.forName("UTF-8")));
@@ -232,15 +418,7 @@ public final class FileManager {
 		BufferedWriter bufferedWriter = null;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			File scoresFile = new File(getJarDirectory(), "scores");
 
 			if (!scoresFile.exists())
 				scoresFile.createNewFile();
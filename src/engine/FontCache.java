@@ -0,0 +1,84 @@
+package engine;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the font loaded once, and each size derived from it along with its
+ * properties, so every size is derived and measured only the first time it
+ * is requested.
+ */
+final class FontCache {
+
+	/** Font as loaded, sizes are derived from it. */
+	private Font baseFont;
+	/** Fonts by point size. */
+	private Map<Float, Font> fonts;
+	/** Properties of each font handed out. */
+	private Map<Font, FontMetrics> fontMetrics;
+
+	/**
+	 * Constructor, creates an empty cache.
+	 *
+	 * @param baseFont
+	 *            Font as loaded, sizes are derived from it.
+	 */
+	FontCache(final Font baseFont) {
+		this.baseFont = baseFont;
+		this.fonts = new HashMap<Float, Font>();
+		this.fontMetrics = new HashMap<Font, FontMetrics>();
+	}
+
+	/**
+	 * Returns the font of a given size, deriving it the first time it is
+	 * requested.
+	 *
+	 * @param size
+	 *            Point size of the font.
+	 * @return Font of the given size.
+	 */
+	Font getFont(final float size) {
+		Font font = this.fonts.get(size);
+		if (font == null) {
+			font = this.baseFont.deriveFont(size);
+			this.fonts.put(size, font);
+		}
+		return font;
+	}
+
+	/**
+	 * Returns the properties of the font of a given size, measuring them the
+	 * first time they are requested.
+	 *
+	 * @param size
+	 *            Point size of the font.
+	 * @return Properties of the font of the given size.
+	 */
+	FontMetrics getMetrics(final float size) {
+		return getMetrics(getFont(size));
+	}
+
+	/**
+	 * Returns the properties of a font handed out by this cache, measuring
+	 * them the first time they are requested.
+	 *
+	 * @param font
+	 *            Font from this cache.
+	 * @return Properties of the font.
+	 */
+	FontMetrics getMetrics(final Font font) {
+		FontMetrics metrics = this.fontMetrics.get(font);
+		if (metrics == null) {
+			Graphics graphics = new BufferedImage(1, 1,
+					BufferedImage.TYPE_INT_RGB).getGraphics();
+			metrics = graphics.getFontMetrics(font);
+			graphics.dispose();
+			this.fontMetrics.put(font, metrics);
+		}
+		return metrics;
+	}
+}
@@ -1,6 +1,8 @@
 package engine;
 
+import java.awt.Graphics;
 import java.awt.Insets;
+import java.awt.image.BufferStrategy;
 
 import javax.swing.JFrame;
 
@@ -21,6 +23,8 @@ public class Frame extends JFrame {
 	private int height;
 	/** Screen currently shown. */
 	private Screen currentScreen;
+	/** If the window was painted over since the last frame was shown. */
+	private volatile boolean exposed;
 
 	/**
 	 * Initializes the new frame.
@@ -46,6 +50,59 @@ public class Frame extends JFrame {
 		addKeyListener(Core.getInputManager());
 	}
 
+	/**
+	 * Creates the pages used to show frames by page flipping, instead of
+	 * copying each frame to the window.
+	 * 
+	 * @param numPages
+	 *            Number of pages, 2 or 3.
+	 * @return Strategy that shows the pages.
+	 */
+	public final BufferStrategy createPages(final int numPages) {
+		createBufferStrategy(numPages);
+		BufferStrategy bufferStrategy = getBufferStrategy();
+
+		Core.getLogger().info("Created " + numPages + " pages, "
+				+ (bufferStrategy.getCapabilities().isPageFlipping()
+						? "with" : "without") + " page flipping.");
+		return bufferStrategy;
+	}
+
+	/**
+	 * Paints the window when it is exposed, and marks it so the next frame
+	 * is shown completely over it, waking up idle screens to show it.
+	 * 
+	 * @param graphics
+	 *            Graphics context of the window.
+	 */
+	@Override
+	public final void paint(final Graphics graphics) {
+		super.paint(graphics);
+		this.exposed = true;
+		Core.getInputManager().wakeUp();
+	}
+
+	/**
+	 * Checks if the window was painted over since the last frame was shown,
+	 * without clearing the mark.
+	 * 
+	 * @return True if the whole frame has to be shown again.
+	 */
+	public final boolean isExposed() {
+		return this.exposed;
+	}
+
+	/**
+	 * Checks if the window was painted over since the last call.
+	 * 
+	 * @return True if the whole frame has to be shown again.
+	 */
+	public final boolean checkExposed() {
+		boolean wasExposed = this.exposed;
+		this.exposed = false;
+		return wasExposed;
+	}
+
 	/**
 	 * Sets current screen.
 	 * 
@@ -56,7 +113,9 @@ public class Frame extends JFrame {
 	public final int setScreen(final Screen screen) {
 		currentScreen = screen;
 		currentScreen.initialize();
-		return currentScreen.run();
+		int returnCode = currentScreen.run();
+		Core.getDrawManager().releaseBackBuffer();
+		return returnCode;
 	}
 
 	/**
@@ -0,0 +1,40 @@
+package engine;
+
+/**
+ * Game clock reading the system time once per update, so every cooldown
+ * checked during an update sees the same time without asking the system
+ * again.
+ */
+final class FrameClock implements GameClock {
+
+	/** System time at the start of the current update. */
+	private long time;
+
+	/**
+	 * Constructor, reads the system time for the first time.
+	 */
+	FrameClock() {
+		this.time = System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the system time at the start of the current update.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public long getTime() {
+		return this.time;
+	}
+
+	/**
+	 * Reads the system time for the update starting.
+	 * 
+	 * @param nanoseconds
+	 *            Time between updates, ignored.
+	 */
+	@Override
+	public void tick(final long nanoseconds) {
+		this.time = System.currentTimeMillis();
+	}
+}
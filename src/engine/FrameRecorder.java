@@ -0,0 +1,294 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Records the frames shown to disk. Frames are copied to a pool of buffers
+ * and written by a background thread, so the game never waits for the
+ * disk; when every buffer is in use the frame is dropped.
+ */
+final class FrameRecorder {
+
+	/** Ways of writing the frames. */
+	enum Format {
+		/** Single stream file, each frame run length encoded. */
+		RLE,
+		/** One PNG image for each frame. */
+		PNG
+	};
+
+	/** Number of frame buffers in the pool. */
+	private static final int NUM_BUFFERS = 8;
+	/** Time the encoder waits for a frame before checking if it is closed. */
+	private static final long ENCODER_WAIT = 100;
+
+	/**
+	 * Copy of a frame, waiting to be written.
+	 */
+	private static final class CapturedFrame {
+		/** Pixels of the frame, row by row. */
+		private int[] pixels = new int[0];
+		/** Width of the frame. */
+		private int width;
+		/** Height of the frame. */
+		private int height;
+		/** Moment the frame was captured, in milliseconds from the start. */
+		private long time;
+	}
+
+	/** Application logger. */
+	private Logger logger;
+	/** How the frames are written. */
+	private Format format;
+	/** Directory the frames are written in. */
+	private File directory;
+	/** Buffers free to copy a frame to. */
+	private BlockingQueue<CapturedFrame> freeFrames;
+	/** Buffers with a frame waiting to be written. */
+	private BlockingQueue<CapturedFrame> readyFrames;
+	/** Thread writing the frames. */
+	private Thread encoderThread;
+	/** Frame stream, when writing run length encoded frames. */
+	private DataOutputStream stream;
+	/** Image reused for each frame, when writing PNG images. */
+	private BufferedImage image;
+	/** Moment the recording started, in milliseconds. */
+	private long startTime;
+	/** If no more frames are accepted. */
+	private volatile boolean isClosed;
+	/** If close() was called, so the output is or is being closed. */
+	private boolean isFinished;
+
+	/** Number of frames written. */
+	private AtomicInteger writtenCount = new AtomicInteger();
+	/** Number of frames dropped because every buffer was in use. */
+	private AtomicInteger droppedCount = new AtomicInteger();
+	/** Total time spent writing frames, in nanoseconds. */
+	private long totalEncodeTime;
+
+	/**
+	 * Constructor, starts the thread writing the frames.
+	 *
+	 * @param format
+	 *            How the frames are written.
+	 * @param directory
+	 *            Directory to write the frames in, created if needed.
+	 * @throws IOException
+	 *             In case the output can not be created.
+	 */
+	FrameRecorder(final Format format, final File directory)
+			throws IOException {
+		this.logger = Core.getLogger();
+		this.format = format;
+		this.directory = directory;
+		this.freeFrames = new ArrayBlockingQueue<CapturedFrame>(NUM_BUFFERS);
+		this.readyFrames = new ArrayBlockingQueue<CapturedFrame>(NUM_BUFFERS);
+		for (int i = 0; i < NUM_BUFFERS; i++)
+			this.freeFrames.add(new CapturedFrame());
+
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Can not create " + directory);
+		if (format == Format.RLE)
+			this.stream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(new File(directory, "frames.rle"))));
+
+		this.startTime = System.currentTimeMillis();
+		this.encoderThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				encodeFrames();
+			}
+		}, "Frame encoder");
+		this.encoderThread.setDaemon(true);
+		this.encoderThread.start();
+		this.logger.info("Recording frames as "
+				+ format.toString().toLowerCase() + " in "
+				+ directory.getAbsolutePath() + ".");
+	}
+
+	/**
+	 * Copies a finished frame to be written, or drops it if every buffer is
+	 * in use. Never waits for the encoder. Frames handed over before the
+	 * recorder is closed are always written or counted as dropped.
+	 *
+	 * @param pixels
+	 *            Pixels of the frame, row by row.
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 */
+	synchronized void capture(final int[] pixels, final int width,
+			final int height) {
+		CapturedFrame frame = this.isClosed ? null : this.freeFrames.poll();
+		if (frame == null) {
+			this.droppedCount.incrementAndGet();
+			return;
+		}
+
+		if (frame.pixels.length != width * height)
+			frame.pixels = new int[width * height];
+		System.arraycopy(pixels, 0, frame.pixels, 0, width * height);
+		frame.width = width;
+		frame.height = height;
+		frame.time = System.currentTimeMillis() - this.startTime;
+		this.readyFrames.add(frame);
+	}
+
+	/**
+	 * Writes the captured frames until the recorder is closed and every
+	 * frame handed over is written, on the encoder thread.
+	 */
+	private void encodeFrames() {
+		CapturedFrame frame = null;
+		try {
+			while (!this.isClosed || !this.readyFrames.isEmpty()) {
+				frame = this.readyFrames.poll(ENCODER_WAIT,
+						TimeUnit.MILLISECONDS);
+				if (frame == null)
+					continue;
+
+				long encodeStart = System.nanoTime();
+				if (this.format == Format.RLE)
+					writeRunLengths(frame);
+				else
+					writeImage(frame);
+				this.totalEncodeTime += System.nanoTime() - encodeStart;
+				this.writtenCount.incrementAndGet();
+				this.freeFrames.add(frame);
+				frame = null;
+			}
+		} catch (IOException e) {
+			this.logger.warning("Frame recording failed, stopping it: "
+					+ e.getMessage());
+			abort(frame);
+		} catch (InterruptedException e) {
+			this.logger.warning("Frame encoder interrupted, stopping it.");
+			abort(frame);
+		}
+	}
+
+	/**
+	 * Stops accepting frames after the encoder fails, and counts every
+	 * frame not written as dropped.
+	 *
+	 * @param currentFrame
+	 *            Frame being written when the encoder failed, may be null.
+	 */
+	private void abort(final CapturedFrame currentFrame) {
+		synchronized (this) {
+			this.isClosed = true;
+		}
+		// No frame is handed over once closed, so none is missed here.
+		int lost = currentFrame == null ? 0 : 1;
+		while (this.readyFrames.poll() != null)
+			lost++;
+		this.droppedCount.addAndGet(lost);
+	}
+
+	/**
+	 * Writes a frame to the stream, as its size and time followed by runs of
+	 * equal pixels, each one as its length and color.
+	 *
+	 * @param frame
+	 *            Frame to write.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	private void writeRunLengths(final CapturedFrame frame)
+			throws IOException {
+		int size = frame.width * frame.height;
+		this.stream.writeInt(frame.width);
+		this.stream.writeInt(frame.height);
+		this.stream.writeLong(frame.time);
+
+		int i = 0;
+		while (i < size) {
+			int color = frame.pixels[i];
+			int run = 1;
+			while (i + run < size && frame.pixels[i + run] == color)
+				run++;
+			this.stream.writeInt(run);
+			this.stream.writeInt(color);
+			i += run;
+		}
+	}
+
+	/**
+	 * Writes a frame as a PNG image, numbered in order.
+	 *
+	 * @param frame
+	 *            Frame to write.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	private void writeImage(final CapturedFrame frame) throws IOException {
+		if (this.image == null || this.image.getWidth() != frame.width
+				|| this.image.getHeight() != frame.height)
+			this.image = new BufferedImage(frame.width, frame.height,
+					BufferedImage.TYPE_INT_RGB);
+		this.image.getRaster().setDataElements(0, 0, frame.width,
+				frame.height, frame.pixels);
+		ImageIO.write(this.image, "png", new File(this.directory,
+				String.format("frame%06d.png", this.writtenCount.get())));
+	}
+
+	/**
+	 * Getter for the number of frames written until now.
+	 *
+	 * @return Number of frames written.
+	 */
+	int getWrittenCount() {
+		return this.writtenCount.get();
+	}
+
+	/**
+	 * Getter for the number of frames dropped until now.
+	 *
+	 * @return Number of frames dropped.
+	 */
+	int getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * Stops accepting frames, waits until the captured ones are written and
+	 * closes the output. Does nothing if already closed.
+	 */
+	void close() {
+		// Frames being handed over finish first, and the encoder finds them.
+		synchronized (this) {
+			if (this.isFinished)
+				return;
+			this.isFinished = true;
+			this.isClosed = true;
+		}
+		try {
+			this.encoderThread.join();
+			if (this.stream != null)
+				this.stream.close();
+		} catch (InterruptedException e) {
+			this.logger.warning("Interrupted while finishing the recording.");
+		} catch (IOException e) {
+			this.logger.warning("Could not close the recording.");
+		}
+
+		int written = this.writtenCount.get();
+		this.logger.info("Recorded " + written + " frames, dropped "
+				+ this.droppedCount.get() + ", "
+				+ (written == 0 ? 0 : this.totalEncodeTime / written / 1000)
+				+ " microseconds per frame written on average.");
+	}
+}
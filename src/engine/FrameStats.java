@@ -0,0 +1,290 @@
+package engine;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Measures where the time of each frame goes, keeping a histogram of the
+ * duration of each phase. Published through JMX, and written to a file
+ * when a screen finishes if -Dinvaders.statsFile is given.
+ */
+public final class FrameStats implements FrameStatsMBean {
+
+	/** Name the statistics are published under. */
+	private static final String OBJECT_NAME = "engine:type=FrameStats";
+	/** File the statistics of each screen are appended to, if any. */
+	private static final String STATS_FILE = System
+			.getProperty("invaders.statsFile");
+	/** Nanoseconds in a microsecond. */
+	private static final long NANOS_PER_MICRO = 1000;
+
+	/** Parts of a frame measured. */
+	public static enum Phase {
+		/** Whole frame, from the first update to the end of the drawing. */
+		FRAME,
+		/** Updates run in the frame. */
+		UPDATE,
+		/** Collision checks, part of the updates. */
+		COLLISION,
+		/** Drawing the frame, including presenting it on the same thread. */
+		DRAW,
+		/** Rendering and showing the frame, maybe on its own thread. */
+		PRESENT,
+		/** Waiting for the next frame. */
+		SLEEP
+	};
+
+	/** Singleton instance of the class. */
+	private static FrameStats instance;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Durations of each phase, indexed by phase ordinal. */
+	private Histogram[] histograms;
+	/** Number of frames that took longer than their budget. */
+	private volatile long missedDeadlineCount;
+	/** Number of frames not drawn to catch up with the updates. */
+	private volatile long skippedFrameCount;
+
+	/**
+	 * Private constructor.
+	 */
+	private FrameStats() {
+		this.logger = Core.getLogger();
+		this.histograms = new Histogram[Phase.values().length];
+		for (int i = 0; i < this.histograms.length; i++)
+			this.histograms[i] = new Histogram();
+	}
+
+	/**
+	 * Returns shared instance of FrameStats, publishing it through JMX the
+	 * first time.
+	 * 
+	 * @return Shared instance of FrameStats.
+	 */
+	protected static FrameStats getInstance() {
+		if (instance == null) {
+			instance = new FrameStats();
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(
+						instance, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				instance.logger.warning("Could not publish the frame "
+						+ "statistics through JMX.");
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Counts the duration of one phase of a frame.
+	 * 
+	 * @param phase
+	 *            Phase measured.
+	 * @param nanoseconds
+	 *            Duration of the phase.
+	 */
+	public void record(final Phase phase, final long nanoseconds) {
+		this.histograms[phase.ordinal()].record(nanoseconds);
+	}
+
+	/**
+	 * Counts the duration of a whole frame, checking it against its budget.
+	 * 
+	 * @param nanoseconds
+	 *            Duration of the frame.
+	 * @param budget
+	 *            Time the frame had, in nanoseconds.
+	 */
+	public void recordFrame(final long nanoseconds, final long budget) {
+		record(Phase.FRAME, nanoseconds);
+		if (nanoseconds > budget)
+			this.missedDeadlineCount++;
+	}
+
+	/**
+	 * Counts frames not drawn so the updates could catch up.
+	 * 
+	 * @param count
+	 *            Number of frames skipped.
+	 */
+	public void recordSkippedFrames(final int count) {
+		this.skippedFrameCount += count;
+	}
+
+	/**
+	 * Getter for the number of frames measured.
+	 * 
+	 * @return Number of frames measured.
+	 */
+	@Override
+	public long getFrameCount() {
+		return this.histograms[Phase.FRAME.ordinal()].getCount();
+	}
+
+	/**
+	 * Getter for the number of frames that took longer than their budget.
+	 * 
+	 * @return Number of missed deadlines.
+	 */
+	@Override
+	public long getMissedDeadlineCount() {
+		return this.missedDeadlineCount;
+	}
+
+	/**
+	 * Getter for the number of frames not drawn to catch up.
+	 * 
+	 * @return Number of frames skipped.
+	 */
+	@Override
+	public long getSkippedFrameCount() {
+		return this.skippedFrameCount;
+	}
+
+	/**
+	 * Returns the median time of a frame.
+	 * 
+	 * @return 50th percentile of the frame time, in microseconds.
+	 */
+	@Override
+	public long getFrameTimeP50() {
+		return getPercentile(Phase.FRAME, 50);
+	}
+
+	/**
+	 * Returns the time under which 99% of the frames fall.
+	 * 
+	 * @return 99th percentile of the frame time, in microseconds.
+	 */
+	@Override
+	public long getFrameTimeP99() {
+		return getPercentile(Phase.FRAME, 99);
+	}
+
+	/**
+	 * Returns the time under which 99.9% of the frames fall.
+	 * 
+	 * @return 99.9th percentile of the frame time, in microseconds.
+	 */
+	@Override
+	public long getFrameTimeP999() {
+		return getPercentile(Phase.FRAME, 99.9);
+	}
+
+	/**
+	 * Returns a percentile of the time spent in one phase of the frames.
+	 * 
+	 * @param phase
+	 *            Name of the phase.
+	 * @param percentile
+	 *            Percentage of the frames, from 0 to 100.
+	 * @return Time at the percentile, in microseconds.
+	 */
+	@Override
+	public long getPercentile(final String phase, final double percentile) {
+		return getPercentile(Phase.valueOf(phase.trim().toUpperCase()),
+				percentile);
+	}
+
+	/**
+	 * Returns a percentile of the time spent in one phase of the frames.
+	 * 
+	 * @param phase
+	 *            Phase of the frames.
+	 * @param percentile
+	 *            Percentage of the frames, from 0 to 100.
+	 * @return Time at the percentile, in microseconds.
+	 */
+	public long getPercentile(final Phase phase, final double percentile) {
+		return this.histograms[phase.ordinal()].getPercentile(percentile)
+				/ NANOS_PER_MICRO;
+	}
+
+	/**
+	 * Returns the statistics of every phase, one line each.
+	 * 
+	 * @return Summary of the statistics.
+	 */
+	@Override
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		summary.append(getFrameCount()).append(" frames, ")
+				.append(this.missedDeadlineCount)
+				.append(" missed deadlines, ")
+				.append(this.skippedFrameCount)
+				.append(" skipped, times in microseconds.");
+		for (Phase phase : Phase.values()) {
+			Histogram histogram = this.histograms[phase.ordinal()];
+			summary.append(System.lineSeparator())
+					.append(phase.toString().toLowerCase())
+					.append(": count ").append(histogram.getCount())
+					.append(", mean ")
+					.append(histogram.getMean() / NANOS_PER_MICRO)
+					.append(", p50 ").append(getPercentile(phase, 50))
+					.append(", p99 ").append(getPercentile(phase, 99))
+					.append(", p999 ").append(getPercentile(phase, 99.9))
+					.append(", max ")
+					.append(histogram.getMax() / NANOS_PER_MICRO);
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Forgets the frames measured until now.
+	 */
+	@Override
+	public void reset() {
+		for (Histogram histogram : this.histograms)
+			histogram.reset();
+		this.missedDeadlineCount = 0;
+		this.skippedFrameCount = 0;
+	}
+
+	/**
+	 * Logs the statistics of a finished screen, appends them to the
+	 * statistics file if there is one, and starts counting again.
+	 * 
+	 * @param screenName
+	 *            Name of the finished screen.
+	 */
+	public void dump(final String screenName) {
+		if (getFrameCount() == 0)
+			return;
+
+		String summary = getSummary();
+		this.logger.info("Frame statistics of " + screenName + ": "
+				+ summary);
+		if (STATS_FILE != null) {
+			Writer writer = null;
+			try {
+				writer = new BufferedWriter(new OutputStreamWriter(
+						new FileOutputStream(STATS_FILE, true),
+						Charset.forName("UTF-8")));
+				writer.write(new Date() + " " + screenName + ": " + summary
+						+ System.lineSeparator());
+			} catch (IOException e) {
+				this.logger.warning("Could not write the frame statistics.");
+			} finally {
+				try {
+					if (writer != null)
+						writer.close();
+				} catch (IOException e) {
+					this.logger.warning("Could not close " + STATS_FILE
+							+ ".");
+				}
+			}
+		}
+		reset();
+	}
+}
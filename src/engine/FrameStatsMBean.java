@@ -0,0 +1,75 @@
+package engine;
+
+/**
+ * Frame timing statistics of the running screen, as exposed through JMX.
+ * Times are given in microseconds.
+ */
+public interface FrameStatsMBean {
+
+	/**
+	 * Getter for the number of frames measured.
+	 * 
+	 * @return Number of frames measured.
+	 */
+	long getFrameCount();
+
+	/**
+	 * Getter for the number of frames that took longer than their budget.
+	 * 
+	 * @return Number of missed deadlines.
+	 */
+	long getMissedDeadlineCount();
+
+	/**
+	 * Getter for the number of frames not drawn so the updates could catch
+	 * up.
+	 * 
+	 * @return Number of frames skipped.
+	 */
+	long getSkippedFrameCount();
+
+	/**
+	 * Returns the median time of a frame.
+	 * 
+	 * @return 50th percentile of the frame time.
+	 */
+	long getFrameTimeP50();
+
+	/**
+	 * Returns the time under which 99% of the frames fall.
+	 * 
+	 * @return 99th percentile of the frame time.
+	 */
+	long getFrameTimeP99();
+
+	/**
+	 * Returns the time under which 99.9% of the frames fall.
+	 * 
+	 * @return 99.9th percentile of the frame time.
+	 */
+	long getFrameTimeP999();
+
+	/**
+	 * Returns a percentile of the time spent in one phase of the frames.
+	 * 
+	 * @param phase
+	 *            Name of the phase, one of frame, update, collision, draw,
+	 *            present or sleep.
+	 * @param percentile
+	 *            Percentage of the frames, from 0 to 100.
+	 * @return Time at the percentile.
+	 */
+	long getPercentile(String phase, double percentile);
+
+	/**
+	 * Returns the statistics of every phase, one line each.
+	 * 
+	 * @return Summary of the statistics.
+	 */
+	String getSummary();
+
+	/**
+	 * Forgets the frames measured until now.
+	 */
+	void reset();
+}
@@ -0,0 +1,24 @@
+package engine;
+
+/**
+ * Source of the time of the game, read by every cooldown. Moved forward
+ * once before each update of the screen.
+ */
+public interface GameClock {
+
+	/**
+	 * Returns the current time of the game.
+	 * 
+	 * @return Current time, in milliseconds. Never 0, as cooldowns take 0
+	 *         as not started.
+	 */
+	long getTime();
+
+	/**
+	 * Called before each update, with the time between updates.
+	 * 
+	 * @param nanoseconds
+	 *            Time between updates.
+	 */
+	void tick(long nanoseconds);
+}
@@ -0,0 +1,140 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of durations, counted in buckets of logarithmic size with a
+ * fixed number of linear sub-buckets each, so every value is kept with a
+ * relative error under 1 / 32. Recording never allocates.
+ */
+public final class Histogram {
+
+	/** Bits of each value kept exactly. */
+	private static final int SUB_BUCKET_BITS = 5;
+	/** Number of sub-buckets in each power of two. */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	/** Highest power of two counted, larger values are counted as it. */
+	private static final int MAX_MAGNITUDE = 40;
+	/** Largest value counted, over 30 minutes in nanoseconds. */
+	private static final long MAX_VALUE = (1L << MAX_MAGNITUDE + 1) - 1;
+
+	/** Number of values in each bucket. */
+	private long[] counts;
+	/** Number of values recorded. */
+	private long totalCount;
+	/** Sum of the values recorded. */
+	private long totalValue;
+	/** Largest value recorded. */
+	private long maxValue;
+
+	/**
+	 * Constructor, creates an empty histogram.
+	 */
+	public Histogram() {
+		this.counts = new long[(MAX_MAGNITUDE - SUB_BUCKET_BITS + 2)
+				* SUB_BUCKET_COUNT];
+	}
+
+	/**
+	 * Counts a value.
+	 * 
+	 * @param value
+	 *            Value to count, negative ones are counted as 0.
+	 */
+	public synchronized void record(final long value) {
+		long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+		this.counts[getIndex(clamped)]++;
+		this.totalCount++;
+		this.totalValue += clamped;
+		this.maxValue = Math.max(this.maxValue, clamped);
+	}
+
+	/**
+	 * Returns the bucket a value is counted in. Values below twice the
+	 * number of sub-buckets get a bucket each; above that, each power of two
+	 * is split in as many buckets as sub-buckets.
+	 * 
+	 * @param value
+	 *            Value to count.
+	 * @return Index of its bucket.
+	 */
+	private static int getIndex(final long value) {
+		int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = Math.max(0, magnitude - SUB_BUCKET_BITS);
+		return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+	}
+
+	/**
+	 * Returns the largest value counted in a bucket.
+	 * 
+	 * @param index
+	 *            Index of the bucket.
+	 * @return Largest value of the bucket.
+	 */
+	private static long getHighestValue(final int index) {
+		int shift = Math.max(0, index / SUB_BUCKET_COUNT - 1);
+		long subBucket = index - shift * SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Returns the value under which a percentage of the values fall.
+	 * 
+	 * @param percentile
+	 *            Percentage of the values, from 0 to 100.
+	 * @return Value at the percentile, or 0 if there are no values.
+	 */
+	public synchronized long getPercentile(final double percentile) {
+		if (this.totalCount == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100
+				* this.totalCount));
+		long count = 0;
+		for (int i = 0; i < this.counts.length; i++) {
+			count += this.counts[i];
+			if (count >= target)
+				return Math.min(getHighestValue(i), this.maxValue);
+		}
+		return this.maxValue;
+	}
+
+	/**
+	 * Getter for the number of values counted.
+	 * 
+	 * @return Number of values counted.
+	 */
+	public synchronized long getCount() {
+		return this.totalCount;
+	}
+
+	/**
+	 * Returns the average of the values counted.
+	 * 
+	 * @return Average value, or 0 if there are no values.
+	 */
+	public synchronized long getMean() {
+		if (this.totalCount == 0)
+			return 0;
+		return this.totalValue / this.totalCount;
+	}
+
+	/**
+	 * Getter for the largest value counted.
+	 * 
+	 * @return Largest value counted.
+	 */
+	public synchronized long getMax() {
+		return this.maxValue;
+	}
+
+	/**
+	 * Forgets every value counted.
+	 */
+	public synchronized void reset() {
+		Arrays.fill(this.counts, 0);
+		this.totalCount = 0;
+		this.totalValue = 0;
+		this.maxValue = 0;
+	}
+}
@@ -17,6 +17,8 @@ public final class InputManager implements KeyListener {
 	private static boolean[] keys;
 	/** Singleton instance of the class. */
 	private static InputManager instance;
+	/** Number of changes in the keys pressed, or wake up requests. */
+	private int inputVersion;
 
 	/**
 	 * Private constructor.
@@ -47,6 +49,45 @@ public final class InputManager implements KeyListener {
 		return keys[keyCode];
 	}
 
+	/**
+	 * Returns the number of input changes until now, to wait for the next
+	 * one.
+	 * 
+	 * @return Current input version.
+	 */
+	public synchronized int getInputVersion() {
+		return this.inputVersion;
+	}
+
+	/**
+	 * Waits until the input changes from the given version, or the time is
+	 * up.
+	 * 
+	 * @param version
+	 *            Input version already handled.
+	 * @param milliseconds
+	 *            Maximum time to wait.
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting.
+	 */
+	public synchronized void awaitInput(final int version,
+			final long milliseconds) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + milliseconds;
+		long remaining = milliseconds;
+		while (this.inputVersion == version && remaining > 0) {
+			wait(remaining);
+			remaining = deadline - System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Wakes up the screen waiting for input, as if the input changed.
+	 */
+	synchronized void wakeUp() {
+		this.inputVersion++;
+		notifyAll();
+	}
+
 	/**
 	 * Changes the state of the key to pressed.
 	 * 
@@ -55,8 +96,10 @@ public final class InputManager implements KeyListener {
 	 */
 	@Override
 	public void keyPressed(final KeyEvent key) {
-		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
+		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS) {
 			keys[key.getKeyCode()] = true;
+			wakeUp();
+		}
 	}
 
 	/**
@@ -67,8 +110,10 @@ public final class InputManager implements KeyListener {
 	 */
 	@Override
 	public void keyReleased(final KeyEvent key) {
-		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
+		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS) {
 			keys[key.getKeyCode()] = false;
+			wakeUp();
+		}
 	}
 
 	/**
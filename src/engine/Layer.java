@@ -0,0 +1,154 @@
+package engine;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Group of drawing commands that rarely changes, kept as a single image and
+ * drawn again only when a new version of it is requested.
+ */
+final class Layer {
+
+	/** Commands of the layer, while being recorded. */
+	private DrawCommandList commands;
+	/** Version of the layer in the image. */
+	private long version;
+	/** If the image holds a drawn version of the layer. */
+	private boolean isDrawn;
+	/** Image of the layer, transparent where nothing was drawn. */
+	private BufferedImage image;
+	/** Coordinates of the left side of the image. */
+	private int positionX;
+	/** Coordinates of the upper side of the image. */
+	private int positionY;
+
+	/**
+	 * Constructor, the layer is drawn on first use.
+	 */
+	Layer() {
+		this.commands = new DrawCommandList();
+		this.isDrawn = false;
+	}
+
+	/**
+	 * Checks if the image holds the given version of the layer.
+	 *
+	 * @param newVersion
+	 *            Version requested.
+	 * @return True if the layer does not need to be drawn again.
+	 */
+	boolean isCurrent(final long newVersion) {
+		return this.isDrawn && this.version == newVersion;
+	}
+
+	/**
+	 * Starts recording a new version of the layer.
+	 *
+	 * @param newVersion
+	 *            Version being recorded.
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 * @return List to record the commands of the layer in.
+	 */
+	DrawCommandList begin(final long newVersion, final int width,
+			final int height) {
+		this.version = newVersion;
+		this.isDrawn = false;
+		this.commands.clear(width, height);
+		return this.commands;
+	}
+
+	/**
+	 * Draws the recorded commands on a new image, only as big as needed.
+	 * Earlier images are not modified, as they may still be in use.
+	 *
+	 * @param spriteAtlas
+	 *            Images of the sprites.
+	 */
+	void finish(final SpriteAtlas spriteAtlas) {
+		int left = this.commands.getWidth();
+		int top = this.commands.getHeight();
+		int right = 0;
+		int bottom = 0;
+
+		for (int i = 0; i < this.commands.size(); i++) {
+			DrawCommand command = this.commands.get(i);
+			left = Math.min(left, command.getPositionX());
+			top = Math.min(top, command.getPositionY());
+			right = Math.max(right, command.getPositionX()
+					+ command.getWidth());
+			bottom = Math.max(bottom, command.getPositionY()
+					+ command.getHeight());
+		}
+		left = Math.max(left, 0);
+		top = Math.max(top, 0);
+		right = Math.min(right, this.commands.getWidth());
+		bottom = Math.min(bottom, this.commands.getHeight());
+
+		this.isDrawn = true;
+		if (right <= left || bottom <= top) {
+			this.image = null;
+			return;
+		}
+
+		this.positionX = left;
+		this.positionY = top;
+		this.image = new BufferedImage(right - left, bottom - top,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = this.image.createGraphics();
+		graphics.translate(-left, -top);
+
+		for (int i = 0; i < this.commands.size(); i++) {
+			DrawCommand command = this.commands.get(i);
+			switch (command.getType()) {
+			case SPRITE:
+				graphics.drawImage(spriteAtlas.getImage(
+						command.getSpriteType(), command.getColor()),
+						command.getPositionX(), command.getPositionY(), null);
+				break;
+			case IMAGE:
+				graphics.drawImage(command.getImage(),
+						command.getPositionX(), command.getPositionY(), null);
+				break;
+			case FILL:
+				graphics.setColor(command.getColor());
+				graphics.fillRect(command.getPositionX(),
+						command.getPositionY(), command.getWidth(),
+						command.getHeight());
+				break;
+			default:
+				break;
+			}
+		}
+		graphics.dispose();
+	}
+
+	/**
+	 * Getter for the image of the layer.
+	 *
+	 * @return Image of the layer, or null if nothing is drawn on it.
+	 */
+	BufferedImage getImage() {
+		return this.image;
+	}
+
+	/**
+	 * Getter for the left side of the image.
+	 *
+	 * @return Coordinates of the left side of the image.
+	 */
+	int getPositionX() {
+		return this.positionX;
+	}
+
+	/**
+	 * Getter for the upper side of the image.
+	 *
+	 * @return Coordinates of the upper side of the image.
+	 */
+	int getPositionY() {
+		return this.positionY;
+	}
+}
@@ -0,0 +1,51 @@
+package engine;
+
+/**
+ * Renderer that ignores every frame, to measure the game logic alone.
+ */
+final class NullRenderer implements Renderer {
+
+	/**
+	 * Does nothing.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame, ignored.
+	 */
+	@Override
+	public void render(final DrawCommandList frameCommands) {
+	}
+
+	/**
+	 * Getter for the number of pixels repainted in the last frame.
+	 *
+	 * @return Always 0.
+	 */
+	@Override
+	public int getPixelsRepainted() {
+		return 0;
+	}
+
+	/**
+	 * Getter for the number of state changes in the last frame.
+	 *
+	 * @return Always 0.
+	 */
+	@Override
+	public int getStateChanges() {
+		return 0;
+	}
+
+	/**
+	 * Does nothing, there are no statistics.
+	 */
+	@Override
+	public void logStatistics() {
+	}
+
+	/**
+	 * Does nothing, no images are kept.
+	 */
+	@Override
+	public void release() {
+	}
+}
@@ -0,0 +1,489 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.Map;
+
+import engine.DrawManager.RenderMode;
+import engine.DrawManager.SpriteType;
+
+/**
+ * Renders each frame on an image in memory, without showing it. Also does
+ * the drawing for the renderers that show the frame somewhere.
+ */
+class OffscreenRenderer implements Renderer {
+
+	/** Starting value of the hash of each command. */
+	private static final long HASH_SEED = 0xCBF29CE484222325L;
+	/** Bits of a matching key holding the position of the command. */
+	private static final int INDEX_BITS = 24;
+	/** Mask of the position of the command in a matching key. */
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+	/** Mask of the hash of the command in a matching key. */
+	private static final long HASH_MASK = (1L << Long.SIZE - INDEX_BITS - 1)
+			- 1;
+
+	/** Image the frames are drawn on, reused between frames. */
+	protected BackBuffer backBuffer;
+	/** Areas of the frame to repaint and show. */
+	protected DirtyRegion dirtyRegion;
+
+	/** How sprites are drawn. */
+	private RenderMode renderMode;
+	/** If only the areas that changed are repainted. */
+	private boolean dirtyRectangles;
+	/** Sprite types mapped to their images. */
+	private Map<SpriteType, Sprite> spriteMap;
+	/** Pre-rasterized sprite images. */
+	private SpriteAtlas spriteAtlas;
+	/** Sprite bitmasks, for drawing directly on the image pixels. */
+	private SpriteRasterizer spriteRasterizer;
+	/** Commands of the previous frame. */
+	private DrawCommandList previousCommands;
+	/** Keys of the commands of the frame, sorted to match them. */
+	private long[] currentKeys;
+	/** Keys of the commands of the previous frame, sorted to match them. */
+	private long[] previousKeys;
+	/** Command of the previous frame drawing the same as each one, or -1. */
+	private int[] matches;
+	/** If each command of the previous frame matched one of the frame. */
+	private boolean[] previousMatched;
+	/** Graphics context being drawn on. */
+	private Graphics2D graphics;
+	/** Color currently set on the graphics context. */
+	private Color graphicsColor;
+	/** Pixels being drawn on, when drawing directly on them. */
+	private int[] pixels;
+	/** Width of the image the pixels belong to. */
+	private int pixelsWidth;
+	/** Number of state changes in the last frame. */
+	private int stateChanges;
+	/** Records the frames rendered, if recording. */
+	private FrameRecorder recorder;
+	/** Draws runs of sprites in parallel bands, if enabled. */
+	private BandRasterizer bandRasterizer;
+
+	/**
+	 * Constructor, the image is created on the first frame.
+	 *
+	 * @param renderMode
+	 *            How sprites are drawn.
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 * @param dirtyRectangles
+	 *            If only the areas that changed are repainted.
+	 * @param numBands
+	 *            Number of bands sprites are drawn on in parallel in raster
+	 *            mode, 1 or less to draw them one after another.
+	 * @param recorder
+	 *            Records the frames rendered, may be null.
+	 */
+	OffscreenRenderer(final RenderMode renderMode,
+			final Map<SpriteType, Sprite> spriteMap,
+			final boolean dirtyRectangles, final int numBands,
+			final FrameRecorder recorder) {
+		this(renderMode, spriteMap, dirtyRectangles, numBands, false,
+				recorder);
+	}
+
+	/**
+	 * Constructor, the image is created on the first frame.
+	 *
+	 * @param renderMode
+	 *            How sprites are drawn.
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 * @param dirtyRectangles
+	 *            If only the areas that changed are repainted.
+	 * @param numBands
+	 *            Number of bands sprites are drawn on in parallel in raster
+	 *            mode, 1 or less to draw them one after another.
+	 * @param allowAccelerated
+	 *            If an accelerated image may be used, when not recording.
+	 * @param recorder
+	 *            Records the frames rendered, may be null.
+	 */
+	protected OffscreenRenderer(final RenderMode renderMode,
+			final Map<SpriteType, Sprite> spriteMap,
+			final boolean dirtyRectangles, final int numBands,
+			final boolean allowAccelerated, final FrameRecorder recorder) {
+		this.renderMode = renderMode;
+		this.recorder = recorder;
+		this.spriteMap = spriteMap;
+		this.dirtyRectangles = dirtyRectangles;
+		this.spriteAtlas = new SpriteAtlas(spriteMap);
+		this.spriteRasterizer = new SpriteRasterizer(spriteMap);
+		if (renderMode == RenderMode.RASTER && numBands > 1)
+			this.bandRasterizer = new BandRasterizer(this.spriteRasterizer,
+					numBands);
+		// The pixels of an accelerated image can not be read cheaply.
+		this.backBuffer = new BackBuffer(allowAccelerated
+				&& renderMode != RenderMode.RASTER && recorder == null);
+		this.previousCommands = new DrawCommandList();
+		this.currentKeys = new long[0];
+		this.previousKeys = new long[0];
+		this.matches = new int[0];
+		this.previousMatched = new boolean[0];
+		this.dirtyRegion = new DirtyRegion();
+	}
+
+	/**
+	 * Executes the commands of a frame on the image.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame, not modified while rendering.
+	 */
+	@Override
+	public void render(final DrawCommandList frameCommands) {
+		Graphics2D imageGraphics = this.backBuffer.begin(null,
+				frameCommands.getWidth(), frameCommands.getHeight());
+		findDirtyRegion(frameCommands, this.backBuffer.isNew());
+		repaint(frameCommands, imageGraphics, this.backBuffer.getPixels(),
+				frameCommands.getWidth());
+		record(frameCommands);
+	}
+
+	/**
+	 * Getter for the number of pixels repainted in the last frame.
+	 *
+	 * @return Area repainted, in pixels.
+	 */
+	@Override
+	public final int getPixelsRepainted() {
+		return this.dirtyRegion.getArea();
+	}
+
+	/**
+	 * Getter for the number of state changes in the last frame.
+	 *
+	 * @return Number of state changes.
+	 */
+	@Override
+	public final int getStateChanges() {
+		return this.stateChanges;
+	}
+
+	/**
+	 * Logs the time spent drawing sprites in parallel, if enabled.
+	 */
+	@Override
+	public final void logStatistics() {
+		if (this.bandRasterizer != null)
+			this.bandRasterizer.logStatistics();
+	}
+
+	/**
+	 * Frees the image, a new one is created on the next frame.
+	 */
+	@Override
+	public void release() {
+		this.backBuffer.release();
+	}
+
+	/**
+	 * Checks if the pixels of each frame have to be in the image, either
+	 * for drawing sprites on them directly or for recording them.
+	 *
+	 * @return True if frames have to be drawn on the image.
+	 */
+	protected final boolean needsPixels() {
+		return this.renderMode == RenderMode.RASTER || this.recorder != null;
+	}
+
+	/**
+	 * Passes the frame drawn on the image to the recorder, if recording.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame.
+	 */
+	protected final void record(final DrawCommandList frameCommands) {
+		if (this.recorder != null)
+			this.recorder.capture(this.backBuffer.getPixels(),
+					frameCommands.getWidth(), frameCommands.getHeight());
+	}
+
+	/**
+	 * Checks if only the areas that changed are repainted.
+	 *
+	 * @return True if the dirty region is found by comparing frames.
+	 */
+	protected final boolean repaintsChangesOnly() {
+		return this.dirtyRectangles;
+	}
+
+	/**
+	 * Finds the areas of the frame to repaint. When only the changes are
+	 * repainted, each command of the frame is matched with one of the
+	 * previous frame drawing exactly the same, wherever it is in the list.
+	 * An entity that moved or changed leaves its commands of both frames
+	 * unmatched, and both areas are marked. Commands added or removed do
+	 * not affect the others.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame.
+	 * @param full
+	 *            If the whole frame has to be repainted anyway.
+	 */
+	protected final void findDirtyRegion(final DrawCommandList frameCommands,
+			final boolean full) {
+		if (!this.dirtyRectangles || full) {
+			this.dirtyRegion.setFull(frameCommands.getWidth(),
+					frameCommands.getHeight());
+			return;
+		}
+
+		this.dirtyRegion.clear(frameCommands.getWidth(),
+				frameCommands.getHeight());
+		matchCommands(frameCommands);
+
+		// A command drawn before one it followed in the previous frame may
+		// now be above or below it, so it is repainted too.
+		int latestMatch = -1;
+		for (int i = 0; i < frameCommands.size(); i++) {
+			if (this.matches[i] > latestMatch) {
+				latestMatch = this.matches[i];
+				continue;
+			}
+			addToDirtyRegion(frameCommands.get(i));
+		}
+		for (int i = 0; i < this.previousCommands.size(); i++)
+			if (!this.previousMatched[i])
+				addToDirtyRegion(this.previousCommands.get(i));
+	}
+
+	/**
+	 * Matches the commands of the frame with those of the previous one that
+	 * draw the same. Both lists are sorted by the hash of each command, and
+	 * commands with the same hash are paired in the order they were drawn.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame.
+	 */
+	private void matchCommands(final DrawCommandList frameCommands) {
+		int currentSize = frameCommands.size();
+		int previousSize = this.previousCommands.size();
+		if (this.currentKeys.length < currentSize) {
+			this.currentKeys = new long[currentSize * 2];
+			this.matches = new int[currentSize * 2];
+		}
+		if (this.previousKeys.length < previousSize) {
+			this.previousKeys = new long[previousSize * 2];
+			this.previousMatched = new boolean[previousSize * 2];
+		}
+
+		for (int i = 0; i < currentSize; i++) {
+			this.currentKeys[i] = matchingKey(frameCommands.get(i), i);
+			this.matches[i] = -1;
+		}
+		for (int i = 0; i < previousSize; i++) {
+			this.previousKeys[i] = matchingKey(this.previousCommands.get(i),
+					i);
+			this.previousMatched[i] = false;
+		}
+		Arrays.sort(this.currentKeys, 0, currentSize);
+		Arrays.sort(this.previousKeys, 0, previousSize);
+
+		int i = 0;
+		int j = 0;
+		while (i < currentSize && j < previousSize) {
+			long currentHash = this.currentKeys[i] >>> INDEX_BITS;
+			long previousHash = this.previousKeys[j] >>> INDEX_BITS;
+			if (currentHash < previousHash) {
+				i++;
+			} else if (currentHash > previousHash) {
+				j++;
+			} else {
+				int current = (int) (this.currentKeys[i++] & INDEX_MASK);
+				int previous = (int) (this.previousKeys[j++] & INDEX_MASK);
+				// Different commands may share a hash, and stay unmatched.
+				if (frameCommands.get(current).drawsSameAs(
+						this.previousCommands.get(previous))) {
+					this.matches[current] = previous;
+					this.previousMatched[previous] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the key a command is matched by, with its hash in the highest
+	 * bits and its position in the list in the lowest ones.
+	 *
+	 * @param command
+	 *            Command to build the key of.
+	 * @param index
+	 *            Position of the command in its list.
+	 * @return Key of the command.
+	 */
+	private static long matchingKey(final DrawCommand command,
+			final int index) {
+		return (command.hash(HASH_SEED) & HASH_MASK) << INDEX_BITS | index;
+	}
+
+	/**
+	 * Marks the area of a command to be repainted.
+	 *
+	 * @param command
+	 *            Command drawn on the area.
+	 */
+	private void addToDirtyRegion(final DrawCommand command) {
+		this.dirtyRegion.add(command.getPositionX(), command.getPositionY(),
+				command.getWidth(), command.getHeight());
+	}
+
+	/**
+	 * Clears the dirty region and executes again every command that touches
+	 * it. The graphics context color is only changed when it differs.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame.
+	 * @param targetGraphics
+	 *            Graphics context to draw with.
+	 * @param targetPixels
+	 *            Pixels of the image drawn on, or null if not available.
+	 * @param targetWidth
+	 *            Width of the image drawn on.
+	 */
+	protected final void repaint(final DrawCommandList frameCommands,
+			final Graphics2D targetGraphics, final int[] targetPixels,
+			final int targetWidth) {
+		this.graphics = targetGraphics;
+		this.pixels = targetPixels;
+		this.pixelsWidth = targetWidth;
+		this.stateChanges = 0;
+
+		for (int i = 0; i < this.dirtyRegion.size(); i++) {
+			int x = this.dirtyRegion.getX(i);
+			int y = this.dirtyRegion.getY(i);
+			int width = this.dirtyRegion.getWidth(i);
+			int height = this.dirtyRegion.getHeight(i);
+			DrawCommand previous = null;
+
+			this.graphics.setClip(x, y, width, height);
+			this.graphics.setColor(Color.BLACK);
+			this.graphicsColor = Color.BLACK;
+			this.graphics.fillRect(x, y, width, height);
+			for (int j = 0; j < frameCommands.size(); j++) {
+				DrawCommand command = frameCommands.get(j);
+				if (!command.intersects(x, y, width, height))
+					continue;
+				if (!command.usesSameStateAs(previous))
+					this.stateChanges++;
+				previous = command;
+
+				if (this.bandRasterizer != null && this.pixels != null
+						&& command.getType() == DrawCommand.Type.SPRITE) {
+					// Draws the whole run of sprites at once.
+					int end = j + 1;
+					for (; end < frameCommands.size() && frameCommands.get(
+							end).getType() == DrawCommand.Type.SPRITE; end++) {
+						DrawCommand sprite = frameCommands.get(end);
+						if (sprite.intersects(x, y, width, height)) {
+							if (!sprite.usesSameStateAs(previous))
+								this.stateChanges++;
+							previous = sprite;
+						}
+					}
+					this.bandRasterizer.draw(this.pixels, this.pixelsWidth,
+							frameCommands, j, end, x, y, x + width,
+							y + height);
+					j = end - 1;
+				} else {
+					execute(command, x, y, x + width, y + height);
+				}
+			}
+		}
+		this.graphics.setClip(null);
+
+		if (this.dirtyRectangles)
+			this.previousCommands.copy(frameCommands);
+	}
+
+	/**
+	 * Sets the color of the graphics context, if not already set.
+	 *
+	 * @param color
+	 *            Color to draw with.
+	 */
+	private void useColor(final Color color) {
+		if (!color.equals(this.graphicsColor)) {
+			this.graphics.setColor(color);
+			this.graphicsColor = color;
+		}
+	}
+
+	/**
+	 * Executes a recorded command.
+	 *
+	 * @param command
+	 *            Command to execute.
+	 * @param clipLeft
+	 *            Left side of the area being repainted.
+	 * @param clipTop
+	 *            Upper side of the area being repainted.
+	 * @param clipRight
+	 *            Right side of the area being repainted, exclusive.
+	 * @param clipBottom
+	 *            Bottom side of the area being repainted, exclusive.
+	 */
+	private void execute(final DrawCommand command, final int clipLeft,
+			final int clipTop, final int clipRight, final int clipBottom) {
+		switch (command.getType()) {
+		case SPRITE:
+			executeSprite(command, clipLeft, clipTop, clipRight, clipBottom);
+			break;
+		case IMAGE:
+			this.graphics.drawImage(command.getImage(),
+					command.getPositionX(), command.getPositionY(), null);
+			break;
+		case FILL:
+			useColor(command.getColor());
+			this.graphics.fillRect(command.getPositionX(),
+					command.getPositionY(), command.getWidth(),
+					command.getHeight());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Draws a sprite, in the way chosen at startup.
+	 *
+	 * @param command
+	 *            Command with the sprite to draw.
+	 * @param clipLeft
+	 *            Left side of the area being repainted.
+	 * @param clipTop
+	 *            Upper side of the area being repainted.
+	 * @param clipRight
+	 *            Right side of the area being repainted, exclusive.
+	 * @param clipBottom
+	 *            Bottom side of the area being repainted, exclusive.
+	 */
+	private void executeSprite(final DrawCommand command, final int clipLeft,
+			final int clipTop, final int clipRight, final int clipBottom) {
+		SpriteType spriteType = command.getSpriteType();
+		int positionX = command.getPositionX();
+		int positionY = command.getPositionY();
+
+		if (this.renderMode == RenderMode.RASTER && this.pixels != null) {
+			this.spriteRasterizer.draw(this.pixels, this.pixelsWidth,
+					spriteType, command.getColor().getRGB(), positionX,
+					positionY, clipLeft, clipTop, clipRight, clipBottom);
+		} else if (this.renderMode != RenderMode.PIXEL) {
+			this.graphics.drawImage(this.spriteAtlas.getImage(spriteType,
+					command.getColor()), positionX, positionY, null);
+		} else {
+			Sprite image = this.spriteMap.get(spriteType);
+
+			useColor(command.getColor());
+			for (int i = 0; i < image.getWidth(); i++)
+				for (int j = 0; j < image.getHeight(); j++)
+					if (image.isLit(i, j))
+						this.graphics.drawRect(positionX + i * 2,
+								positionY + j * 2, 1, 1);
+		}
+	}
+}
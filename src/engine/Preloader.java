@@ -0,0 +1,244 @@
+package engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import entity.EnemyShipFormation;
+
+/**
+ * Prepares the data of the next screens on a background thread while the
+ * current one runs, so changing screens does not wait for files or for
+ * building the enemy formation. Tasks run one at a time, in the order
+ * they are requested.
+ */
+public final class Preloader {
+
+	/** Singleton instance of the class. */
+	private static Preloader instance;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Thread running the preloading tasks. */
+	private ExecutorService executor;
+	/** High scores being loaded, null if not requested. */
+	private Future<List<Score>> highScores;
+	/** Formations being built, by the settings they are built with. */
+	private Map<GameSettings, Future<EnemyShipFormation>> formations;
+
+	/**
+	 * Private constructor, starts the preloading thread.
+	 */
+	private Preloader() {
+		this.logger = Core.getLogger();
+		this.formations = new HashMap<GameSettings,
+				Future<EnemyShipFormation>>();
+		this.executor = Executors.newSingleThreadExecutor(
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread thread = new Thread(runnable, "Preloader");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Returns shared instance of Preloader.
+	 * 
+	 * @return Shared instance of Preloader.
+	 */
+	protected static Preloader getInstance() {
+		if (instance == null)
+			instance = new Preloader();
+		return instance;
+	}
+
+	/**
+	 * Starts loading the high scores, unless they are already loading.
+	 */
+	public void preloadHighScores() {
+		if (this.highScores == null)
+			this.highScores = this.executor.submit(
+					new Callable<List<Score>>() {
+						@Override
+						public List<Score> call() throws IOException {
+							return Core.getFileManager().loadHighScores();
+						}
+					});
+	}
+
+	/**
+	 * Returns the high scores, waiting for them only if they are still
+	 * loading. They are loaded again for the next call.
+	 * 
+	 * @return High scores.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	public List<Score> takeHighScores() throws IOException {
+		preloadHighScores();
+		Future<List<Score>> scores = this.highScores;
+		this.highScores = null;
+		try {
+			return take(scores, "high scores");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Saves the high scores, and returns once they are on disk. The save
+	 * runs on the preloading thread after the tasks already requested, so
+	 * it never overlaps a load, and later loads see it.
+	 * 
+	 * @param scores
+	 *            High scores to save.
+	 * @throws IOException
+	 *             In case of saving problems.
+	 */
+	public void saveHighScores(final List<Score> scores) throws IOException {
+		final List<Score> copy = new ArrayList<Score>(scores);
+		this.highScores = null;
+		Future<Void> save = this.executor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				Core.getFileManager().saveHighScores(copy);
+				return null;
+			}
+		});
+		try {
+			take(save, "high scores to be saved");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Starts building the enemy formation of a level, unless it is already
+	 * being built.
+	 * 
+	 * @param gameSettings
+	 *            Settings of the level.
+	 */
+	public void preloadFormation(final GameSettings gameSettings) {
+		if (!this.formations.containsKey(gameSettings))
+			this.formations.put(gameSettings, this.executor.submit(
+					new Callable<EnemyShipFormation>() {
+						@Override
+						public EnemyShipFormation call() {
+							return new EnemyShipFormation(gameSettings);
+						}
+					}));
+	}
+
+	/**
+	 * Returns the enemy formation of a level, waiting for it only if it is
+	 * still being built, or building it now if it was not requested.
+	 * 
+	 * @param gameSettings
+	 *            Settings of the level.
+	 * @return New formation.
+	 */
+	public EnemyShipFormation takeFormation(final GameSettings gameSettings) {
+		Future<EnemyShipFormation> formation = this.formations
+				.remove(gameSettings);
+		if (formation == null)
+			return new EnemyShipFormation(gameSettings);
+		try {
+			return take(formation, "enemy formation");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Cancels the formations requested and not taken, when a game ends
+	 * before reaching their levels, so a later game builds new ones.
+	 */
+	public void cancelFormations() {
+		for (Future<EnemyShipFormation> formation : this.formations.values())
+			formation.cancel(false);
+		if (!this.formations.isEmpty())
+			this.logger.info("Cancelled " + this.formations.size()
+					+ " preloaded formations.");
+		this.formations.clear();
+	}
+
+	/**
+	 * Stops the preloading thread, dropping the tasks pending. High scores
+	 * are saved before saveHighScores returns, so none is lost.
+	 */
+	public void shutdown() {
+		cancelFormations();
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Waits for a preloaded result, logging the time waited if it was not
+	 * ready.
+	 * 
+	 * @param <T>
+	 *            Type of the result.
+	 * @param future
+	 *            Result being prepared.
+	 * @param name
+	 *            Name of the result, for the log.
+	 * @return Result prepared.
+	 * @throws ExecutionException
+	 *             If the preparation failed.
+	 */
+	private <T> T take(final Future<T> future, final String name)
+			throws ExecutionException {
+		if (future.isDone())
+			return getResult(future);
+
+		long startTime = System.nanoTime();
+		T result = getResult(future);
+		this.logger.info("Waited " + (System.nanoTime() - startTime) / 1000
+				+ " microseconds for the " + name + ".");
+		return result;
+	}
+
+	/**
+	 * Waits for a result, even if interrupted.
+	 * 
+	 * @param <T>
+	 *            Type of the result.
+	 * @param future
+	 *            Result being prepared.
+	 * @return Result prepared.
+	 * @throws ExecutionException
+	 *             If the preparation failed.
+	 */
+	private static <T> T getResult(final Future<T> future)
+			throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package engine;
+
+/**
+ * Executes the commands recorded for a frame and shows the result, wherever
+ * it is shown.
+ */
+interface Renderer {
+
+	/**
+	 * Executes the commands of a frame, and shows it.
+	 *
+	 * @param frameCommands
+	 *            Commands of the frame, not modified while rendering.
+	 */
+	void render(DrawCommandList frameCommands);
+
+	/**
+	 * Getter for the number of pixels repainted in the last frame.
+	 *
+	 * @return Area repainted, in pixels.
+	 */
+	int getPixelsRepainted();
+
+	/**
+	 * Getter for the number of sprite, image or color changes in the last
+	 * frame.
+	 *
+	 * @return Number of state changes.
+	 */
+	int getStateChanges();
+
+	/**
+	 * Logs the statistics particular to the renderer since the last call,
+	 * and starts counting again.
+	 */
+	void logStatistics();
+
+	/**
+	 * Frees the images kept between frames, new ones are created when
+	 * needed.
+	 */
+	void release();
+}
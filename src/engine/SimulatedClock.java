@@ -0,0 +1,36 @@
+package engine;
+
+/**
+ * Game clock moving forward exactly the time between updates on each one,
+ * whatever time they really take. Runs as fast as the updates do, and
+ * gives the same times on every run.
+ */
+final class SimulatedClock implements GameClock {
+
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** Simulated time, in nanoseconds, starting at 1 millisecond. */
+	private long time = NANOS_PER_MILLI;
+
+	/**
+	 * Returns the simulated time.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public long getTime() {
+		return this.time / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Moves the simulated time forward by one update.
+	 * 
+	 * @param nanoseconds
+	 *            Time between updates.
+	 */
+	@Override
+	public void tick(final long nanoseconds) {
+		this.time += nanoseconds;
+	}
+}
@@ -0,0 +1,97 @@
+package engine;
+
+/**
+ * Image of a sprite, one bit per pixel, each row packed in a long.
+ */
+public final class Sprite {
+
+	/** Widest sprite that fits in a row. */
+	static final int MAX_WIDTH = Long.SIZE;
+
+	/** Width of the sprite. */
+	private int width;
+	/** Height of the sprite. */
+	private int height;
+	/** Rows of the sprite, bit i of row j is pixel (i, j). */
+	private long[] rows;
+
+	/**
+	 * Constructor, creates a sprite with no pixel lit.
+	 *
+	 * @param width
+	 *            Width of the sprite, up to 64 pixels.
+	 * @param height
+	 *            Height of the sprite.
+	 */
+	public Sprite(final int width, final int height) {
+		if (width < 1 || width > MAX_WIDTH || height < 1)
+			throw new IllegalArgumentException("Invalid sprite size " + width
+					+ "x" + height);
+		this.width = width;
+		this.height = height;
+		this.rows = new long[height];
+	}
+
+	/**
+	 * Getter for the width of the sprite.
+	 *
+	 * @return Width of the sprite.
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Getter for the height of the sprite.
+	 *
+	 * @return Height of the sprite.
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Checks if a pixel of the sprite is lit.
+	 *
+	 * @param x
+	 *            Column of the pixel.
+	 * @param y
+	 *            Row of the pixel.
+	 * @return True if the pixel is lit.
+	 */
+	public boolean isLit(final int x, final int y) {
+		return (this.rows[y] >>> x & 1L) != 0;
+	}
+
+	/**
+	 * Getter for a row of the sprite.
+	 *
+	 * @param y
+	 *            Row to get.
+	 * @return Row of the sprite, bit i is pixel (i, y).
+	 */
+	long getRow(final int y) {
+		return this.rows[y];
+	}
+
+	/**
+	 * Setter for a row of the sprite.
+	 *
+	 * @param y
+	 *            Row to set.
+	 * @param row
+	 *            New row, bit i is pixel (i, y).
+	 */
+	void setRow(final int y, final long row) {
+		this.rows[y] = row;
+	}
+
+	/**
+	 * Returns the memory used by the pixels of the sprite.
+	 *
+	 * @return Size of the rows, in bytes.
+	 */
+	int getPixelBytes() {
+		return this.height * Long.SIZE / Byte.SIZE;
+	}
+}
@@ -0,0 +1,83 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Keeps a pre-rasterized, pre-scaled image for each sprite and color, so an
+ * entity can be drawn with a single blit.
+ */
+final class SpriteAtlas {
+
+	/** Size in screen pixels of each sprite pixel. */
+	static final int SCALE = 2;
+
+	/** Sprite types mapped to their images. */
+	private Map<SpriteType, Sprite> spriteMap;
+	/** Rasterized images, by sprite type and color. */
+	private Map<SpriteType, Map<Color, BufferedImage>> images;
+
+	/**
+	 * Constructor, creates an empty atlas for the given sprites.
+	 *
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 */
+	SpriteAtlas(final Map<SpriteType, Sprite> spriteMap) {
+		this.spriteMap = spriteMap;
+		this.images = new EnumMap<SpriteType, Map<Color, BufferedImage>>(
+				SpriteType.class);
+		for (SpriteType spriteType : spriteMap.keySet())
+			this.images.put(spriteType, new HashMap<Color, BufferedImage>());
+	}
+
+	/**
+	 * Returns the image of a sprite in a given color, rasterizing it the first
+	 * time it is requested.
+	 *
+	 * @param spriteType
+	 *            Sprite to get.
+	 * @param color
+	 *            Color of the sprite.
+	 * @return Scaled image of the sprite, transparent where it is not lit.
+	 */
+	BufferedImage getImage(final SpriteType spriteType, final Color color) {
+		Map<Color, BufferedImage> colorImages = this.images.get(spriteType);
+		BufferedImage image = colorImages.get(color);
+
+		if (image == null) {
+			image = rasterize(this.spriteMap.get(spriteType), color);
+			colorImages.put(color, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Rasterizes a sprite, each lit pixel covering a SCALE x SCALE square.
+	 *
+	 * @param sprite
+	 *            Sprite to rasterize.
+	 * @param color
+	 *            Color of the lit pixels.
+	 * @return New image of the sprite.
+	 */
+	private static BufferedImage rasterize(final Sprite sprite,
+			final Color color) {
+		BufferedImage image = new BufferedImage(sprite.getWidth() * SCALE,
+				sprite.getHeight() * SCALE, BufferedImage.TYPE_INT_ARGB);
+		int rgb = color.getRGB();
+
+		for (int i = 0; i < sprite.getWidth(); i++)
+			for (int j = 0; j < sprite.getHeight(); j++)
+				if (sprite.isLit(i, j))
+					for (int x = 0; x < SCALE; x++)
+						for (int y = 0; y < SCALE; y++)
+							image.setRGB(i * SCALE + x, j * SCALE + y, rgb);
+		return image;
+	}
+}
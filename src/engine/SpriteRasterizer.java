@@ -0,0 +1,88 @@
+package engine;
+
+import java.util.Map;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Draws sprites by writing directly on the pixels of an image, using one
+ * bitmask for each row of the sprite.
+ */
+final class SpriteRasterizer {
+
+	/** Size in screen pixels of each sprite pixel. */
+	private static final int SCALE = SpriteAtlas.SCALE;
+
+	/** Rows of each sprite, indexed by sprite type ordinal. */
+	private long[][] masks;
+
+	/**
+	 * Constructor, copies the bitmask rows of each sprite.
+	 *
+	 * @param spriteMap
+	 *            Sprite types mapped to their images.
+	 */
+	SpriteRasterizer(final Map<SpriteType, Sprite> spriteMap) {
+		this.masks = new long[SpriteType.values().length][];
+
+		for (Map.Entry<SpriteType, Sprite> sprite : spriteMap.entrySet()) {
+			Sprite image = sprite.getValue();
+			// Bit i of row j is pixel (i, j) of the sprite.
+			long[] rows = new long[image.getHeight()];
+			for (int j = 0; j < rows.length; j++)
+				rows[j] = image.getRow(j);
+			this.masks[sprite.getKey().ordinal()] = rows;
+		}
+	}
+
+	/**
+	 * Draws a sprite on an array of pixels, clipping it to a rectangle.
+	 *
+	 * @param pixels
+	 *            Pixels of the image, row by row.
+	 * @param width
+	 *            Width of the image.
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param rgb
+	 *            Color of the sprite.
+	 * @param positionX
+	 *            Coordinates for the left side of the sprite.
+	 * @param positionY
+	 *            Coordinates for the upper side of the sprite.
+	 * @param clipLeft
+	 *            Left side of the clipping rectangle.
+	 * @param clipTop
+	 *            Upper side of the clipping rectangle.
+	 * @param clipRight
+	 *            Right side of the clipping rectangle, exclusive.
+	 * @param clipBottom
+	 *            Bottom side of the clipping rectangle, exclusive.
+	 */
+	void draw(final int[] pixels, final int width,
+			final SpriteType spriteType, final int rgb, final int positionX,
+			final int positionY, final int clipLeft, final int clipTop,
+			final int clipRight, final int clipBottom) {
+		long[] rows = this.masks[spriteType.ordinal()];
+
+		for (int j = 0; j < rows.length; j++) {
+			if (rows[j] == 0)
+				continue;
+			for (int y = positionY + j * SCALE; y < positionY + (j + 1)
+					* SCALE; y++) {
+				if (y < clipTop || y >= clipBottom)
+					continue;
+				int offset = y * width;
+				long row = rows[j];
+				while (row != 0) {
+					int i = Long.numberOfTrailingZeros(row);
+					row &= row - 1;
+					int x = positionX + i * SCALE;
+					for (int k = Math.max(x, clipLeft); k < Math.min(x
+							+ SCALE, clipRight); k++)
+						pixels[offset + k] = rgb;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps pre-rendered images of strings, by font and color, so each string
+ * is measured and rendered only the first time it is drawn.
+ */
+final class TextCache {
+
+	/** Maximum number of images kept before starting again. */
+	private static final int MAX_IMAGES = 512;
+	/** Strings of each digit, for drawing numbers. */
+	private static final String[] DIGITS = { "0", "1", "2", "3", "4", "5",
+			"6", "7", "8", "9" };
+
+	/** Empty space around each string, for glyphs going past their bounds. */
+	private int margin;
+	/** Images by font, color and string. */
+	private Map<Font, Map<Color, Map<String, BufferedImage>>> images;
+	/** Fonts the strings are drawn with, and their properties. */
+	private FontCache fontCache;
+	/** Number of images kept. */
+	private int size;
+
+	/**
+	 * Constructor, creates an empty cache.
+	 *
+	 * @param margin
+	 *            Empty space around each string.
+	 * @param fontCache
+	 *            Fonts the strings are drawn with, and their properties.
+	 */
+	TextCache(final int margin, final FontCache fontCache) {
+		this.margin = margin;
+		this.fontCache = fontCache;
+		this.images =
+				new HashMap<Font, Map<Color, Map<String, BufferedImage>>>();
+	}
+
+	/**
+	 * Returns the image of a string, rendering it the first time it is
+	 * requested. The baseline of the string is at getAscent() + margin from
+	 * the upper side of the image.
+	 *
+	 * @param text
+	 *            String to draw.
+	 * @param font
+	 *            Font of the string.
+	 * @param color
+	 *            Color of the string.
+	 * @return Image of the string, transparent where it is not drawn.
+	 */
+	BufferedImage getImage(final String text, final Font font,
+			final Color color) {
+		Map<Color, Map<String, BufferedImage>> fontImages = this.images
+				.get(font);
+		if (fontImages == null) {
+			fontImages = new HashMap<Color, Map<String, BufferedImage>>();
+			this.images.put(font, fontImages);
+		}
+		Map<String, BufferedImage> colorImages = fontImages.get(color);
+		if (colorImages == null) {
+			colorImages = new HashMap<String, BufferedImage>();
+			fontImages.put(color, colorImages);
+		}
+
+		BufferedImage image = colorImages.get(text);
+		if (image == null) {
+			if (this.size >= MAX_IMAGES) {
+				this.images.clear();
+				this.size = 0;
+				return getImage(text, font, color);
+			}
+			image = render(text, font, color);
+			colorImages.put(text, image);
+			this.size++;
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the image of a digit.
+	 *
+	 * @param digit
+	 *            Digit to draw, from 0 to 9.
+	 * @param font
+	 *            Font of the digit.
+	 * @param color
+	 *            Color of the digit.
+	 * @return Image of the digit.
+	 */
+	BufferedImage getDigitImage(final int digit, final Font font,
+			final Color color) {
+		return getImage(DIGITS[digit], font, color);
+	}
+
+	/**
+	 * Getter for the width of a string, once drawn.
+	 *
+	 * @param image
+	 *            Image of the string, from this cache.
+	 * @return Width of the string, without the margins.
+	 */
+	int getWidth(final BufferedImage image) {
+		return image.getWidth() - this.margin * 2;
+	}
+
+	/**
+	 * Getter for the distance from the baseline to the top of a font.
+	 *
+	 * @param font
+	 *            Font to check.
+	 * @return Maximum ascent of the font.
+	 */
+	int getAscent(final Font font) {
+		return getFontMetrics(font).getMaxAscent();
+	}
+
+	/**
+	 * Getter for the properties of a font, from the font cache.
+	 *
+	 * @param font
+	 *            Font to check, from the font cache.
+	 * @return Metrics of the font.
+	 */
+	private FontMetrics getFontMetrics(final Font font) {
+		return this.fontCache.getMetrics(font);
+	}
+
+	/**
+	 * Renders a string on a new image.
+	 *
+	 * @param text
+	 *            String to draw.
+	 * @param font
+	 *            Font of the string.
+	 * @param color
+	 *            Color of the string.
+	 * @return New image of the string.
+	 */
+	private BufferedImage render(final String text, final Font font,
+			final Color color) {
+		FontMetrics metrics = getFontMetrics(font);
+		BufferedImage image = new BufferedImage(metrics.stringWidth(text)
+				+ this.margin * 2, metrics.getMaxAscent()
+				+ metrics.getMaxDescent() + this.margin * 2,
+				BufferedImage.TYPE_INT_ARGB);
+
+		Graphics graphics = image.getGraphics();
+		graphics.setFont(font);
+		graphics.setColor(color);
+		graphics.drawString(text, this.margin, this.margin
+				+ metrics.getMaxAscent());
+		graphics.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,252 @@
+package engine;
+
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical timing wheel, keeping timers in slots by the millisecond
+ * they expire in, so moving time forward only touches the timers expiring
+ * and, once every few slots, the ones moving to a finer level. Each level
+ * has 64 slots of 64 times the size of the level below.
+ */
+public final class TimerWheel {
+
+	/** Bits of the slot index in each level. */
+	private static final int SLOT_BITS = 6;
+	/** Number of slots in each level. */
+	private static final int NUM_SLOTS = 1 << SLOT_BITS;
+	/** Mask of the slot index in each level. */
+	private static final int SLOT_MASK = NUM_SLOTS - 1;
+	/** Number of levels, the wheel spans about 4.6 hours. */
+	private static final int NUM_LEVELS = 4;
+
+	/**
+	 * Timer kept in the wheel, pending until its expiry time is reached.
+	 * Subclasses may act when it expires.
+	 */
+	public static class Timer {
+		/** Moment the timer expires, in milliseconds. */
+		private long expiry;
+		/** Next timer in the same slot. */
+		private Timer next;
+		/** Previous timer in the same slot. */
+		private Timer previous;
+		/** Wheel the timer is scheduled in, null if not pending. */
+		private TimerWheel wheel;
+		/** Level of the slot the timer is in. */
+		private int level;
+		/** Index of the slot the timer is in. */
+		private int index;
+
+		/**
+		 * Checks if the timer is scheduled and has not expired yet.
+		 * 
+		 * @return True if the timer is pending.
+		 */
+		public final boolean isPending() {
+			return this.wheel != null;
+		}
+
+		/**
+		 * Getter for the moment the timer expires.
+		 * 
+		 * @return Expiry time, in milliseconds.
+		 */
+		public final long getExpiry() {
+			return this.expiry;
+		}
+
+		/**
+		 * Called once when the timer expires. Does nothing by default.
+		 */
+		protected void expire() {
+		}
+	}
+
+	/** First timer of each slot, by level and slot. */
+	private Timer[][] slots;
+	/** Last moment the wheel moved to, in milliseconds. */
+	private long currentTime;
+	/** Number of timers pending. */
+	private int pendingCount;
+	/** Number of timers expired. */
+	private long expiredCount;
+	/** Number of times a timer moved to a finer level. */
+	private long cascadeCount;
+
+	/**
+	 * Constructor, creates an empty wheel.
+	 * 
+	 * @param startTime
+	 *            Moment the wheel starts at, in milliseconds.
+	 */
+	public TimerWheel(final long startTime) {
+		this.slots = new Timer[NUM_LEVELS][NUM_SLOTS];
+		this.currentTime = startTime;
+	}
+
+	/**
+	 * Schedules a timer, moving it if it was already pending.
+	 * 
+	 * @param timer
+	 *            Timer to schedule.
+	 * @param expiry
+	 *            Moment it expires, in milliseconds. Timers already due
+	 *            expire on the next move of the wheel.
+	 */
+	public void schedule(final Timer timer, final long expiry) {
+		cancel(timer);
+		timer.expiry = expiry;
+		timer.wheel = this;
+		this.pendingCount++;
+		insert(timer, this.currentTime + 1);
+	}
+
+	/**
+	 * Removes a pending timer without expiring it.
+	 * 
+	 * @param timer
+	 *            Timer to remove, nothing is done if it is not pending.
+	 */
+	public void cancel(final Timer timer) {
+		if (timer.wheel == null)
+			return;
+		timer.wheel.unlink(timer);
+		timer.wheel.pendingCount--;
+		timer.wheel = null;
+	}
+
+	/**
+	 * Moves the wheel forward one millisecond at a time, expiring the timers
+	 * reached.
+	 * 
+	 * @param time
+	 *            Moment to move to, in milliseconds.
+	 */
+	public void advance(final long time) {
+		while (this.currentTime < time) {
+			if (this.pendingCount == 0) {
+				this.currentTime = time;
+				return;
+			}
+			this.currentTime++;
+			cascade(1);
+
+			int index = (int) (this.currentTime & SLOT_MASK);
+			Timer timer = this.slots[0][index];
+			this.slots[0][index] = null;
+			while (timer != null) {
+				Timer next = timer.next;
+				timer.next = null;
+				timer.previous = null;
+				if (timer.expiry <= this.currentTime) {
+					timer.wheel = null;
+					this.pendingCount--;
+					this.expiredCount++;
+					timer.expire();
+				} else {
+					insert(timer, this.currentTime + 1);
+				}
+				timer = next;
+			}
+		}
+	}
+
+	/**
+	 * Moves the timers of the current slot of a level to finer levels, when
+	 * the level below has gone through all its slots. Higher levels go
+	 * first.
+	 * 
+	 * @param level
+	 *            Level to check.
+	 */
+	private void cascade(final int level) {
+		if (level >= NUM_LEVELS || (this.currentTime
+				& (1L << SLOT_BITS * level) - 1) != 0)
+			return;
+		cascade(level + 1);
+
+		int index = (int) (this.currentTime >>> SLOT_BITS * level
+				& SLOT_MASK);
+		Timer timer = this.slots[level][index];
+		this.slots[level][index] = null;
+		while (timer != null) {
+			Timer next = timer.next;
+			timer.next = null;
+			timer.previous = null;
+			// Timers due now go to the slot about to be expired.
+			insert(timer, this.currentTime);
+			this.cascadeCount++;
+			timer = next;
+		}
+	}
+
+	/**
+	 * Puts a timer in the slot of the finest level that reaches its expiry.
+	 * 
+	 * @param timer
+	 *            Timer to put in its slot.
+	 * @param earliest
+	 *            Earliest moment the slot can be at, for timers already
+	 *            due.
+	 */
+	private void insert(final Timer timer, final long earliest) {
+		long expiry = Math.max(timer.expiry, earliest);
+		long delta = expiry - this.currentTime;
+		int level = 0;
+		while (level < NUM_LEVELS - 1
+				&& delta >= 1L << SLOT_BITS * (level + 1))
+			level++;
+		// Too far away, it comes back on the last slot of the top level.
+		if (delta >= 1L << SLOT_BITS * NUM_LEVELS)
+			expiry = this.currentTime
+					+ ((long) SLOT_MASK << SLOT_BITS * level);
+		int index = (int) (expiry >>> SLOT_BITS * level & SLOT_MASK);
+
+		timer.level = level;
+		timer.index = index;
+		timer.next = this.slots[level][index];
+		if (timer.next != null)
+			timer.next.previous = timer;
+		this.slots[level][index] = timer;
+	}
+
+	/**
+	 * Takes a timer out of its slot.
+	 * 
+	 * @param timer
+	 *            Pending timer.
+	 */
+	private void unlink(final Timer timer) {
+		if (timer.previous != null)
+			timer.previous.next = timer.next;
+		else
+			this.slots[timer.level][timer.index] = timer.next;
+		if (timer.next != null)
+			timer.next.previous = timer.previous;
+		timer.next = null;
+		timer.previous = null;
+	}
+
+	/**
+	 * Getter for the number of timers pending.
+	 * 
+	 * @return Number of timers pending.
+	 */
+	public int getPendingCount() {
+		return this.pendingCount;
+	}
+
+	/**
+	 * Logs the timers expired and moved between levels since the last call,
+	 * and starts counting again.
+	 */
+	public void logStatistics() {
+		Logger logger = Core.getLogger();
+		logger.info("Timer wheel expired " + this.expiredCount
+				+ " timers and moved " + this.cascadeCount
+				+ " between levels, " + this.pendingCount
+				+ " still pending.");
+		this.expiredCount = 0;
+		this.cascadeCount = 0;
+	}
+}
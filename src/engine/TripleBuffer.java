@@ -0,0 +1,80 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes the latest of a series of values from one thread to another
+ * without locking. The writer fills the back slot and publishes it, and the
+ * reader takes the latest published slot; neither ever waits for the other.
+ *
+ * @param <T>
+ *            Type of the values, reused between publications.
+ */
+final class TripleBuffer<T> {
+
+	/** Mask of the slot index in the shared state. */
+	private static final int INDEX_MASK = 3;
+	/** Flag marking the middle slot as published and not yet taken. */
+	private static final int FRESH = 4;
+
+	/** The three slots. */
+	private Object[] slots;
+	/** Index of the middle slot, plus the FRESH flag. */
+	private AtomicInteger middle;
+	/** Index of the slot owned by the writer. */
+	private int back;
+	/** Index of the slot owned by the reader. */
+	private int front;
+
+	/**
+	 * Constructor, the writer starts with the first slot.
+	 *
+	 * @param first
+	 *            First slot.
+	 * @param second
+	 *            Second slot.
+	 * @param third
+	 *            Third slot.
+	 */
+	TripleBuffer(final T first, final T second, final T third) {
+		this.slots = new Object[] { first, second, third };
+		this.back = 0;
+		this.middle = new AtomicInteger(1);
+		this.front = 2;
+	}
+
+	/**
+	 * Getter for the slot the writer fills, only for the writer thread.
+	 *
+	 * @return Slot owned by the writer.
+	 */
+	@SuppressWarnings("unchecked")
+	T getBack() {
+		return (T) this.slots[this.back];
+	}
+
+	/**
+	 * Publishes the back slot, and gives the writer a new one. If the
+	 * previous publication was not taken yet, it is overwritten.
+	 *
+	 * @return True if a publication was overwritten without being taken.
+	 */
+	boolean publish() {
+		int previous = this.middle.getAndSet(this.back | FRESH);
+		this.back = previous & INDEX_MASK;
+		return (previous & FRESH) != 0;
+	}
+
+	/**
+	 * Takes the latest publication, only for the reader thread.
+	 *
+	 * @return Latest published slot, or null if nothing new was published.
+	 */
+	@SuppressWarnings("unchecked")
+	T take() {
+		if ((this.middle.get() & FRESH) == 0)
+			return null;
+		this.front = this.middle.getAndSet(this.front) & INDEX_MASK;
+		return (T) this.slots[this.front];
+	}
+}
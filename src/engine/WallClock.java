@@ -0,0 +1,27 @@
+package engine;
+
+/**
+ * Game clock reading the system time on every call.
+ */
+final class WallClock implements GameClock {
+
+	/**
+	 * Returns the system time.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public long getTime() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Does nothing, the system time moves on its own.
+	 * 
+	 * @param nanoseconds
+	 *            Time between updates, ignored.
+	 */
+	@Override
+	public void tick(final long nanoseconds) {
+	}
+}
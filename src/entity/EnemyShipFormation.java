@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -58,6 +59,12 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 	/** List of enemy ships forming the formation. */
 	private List<List<EnemyShip>> enemyShips;
+	/** Ships by their initial column and row, kept after others leave. */
+	private EnemyShip[][] lattice;
+	/** Position in the x-axis of the ship in the first column. */
+	private int latticeX;
+	/** Position in the y-axis of the ship in the first row. */
+	private int latticeY;
 	/** Minimum time between shots. */
 	private Cooldown shootingCooldown;
 	/** Number of ships in the formation - horizontally. */
@@ -126,6 +133,9 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		this.movementSpeed = this.baseSpeed;
 		this.positionX = INIT_POS_X;
 		this.positionY = INIT_POS_Y;
+		this.lattice = new EnemyShip[this.nShipsWide][this.nShipsHigh];
+		this.latticeX = INIT_POS_X;
+		this.latticeY = INIT_POS_Y;
 		this.shooters = new ArrayList<EnemyShip>();
 		SpriteType spriteType;
 
@@ -150,6 +160,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 						* this.enemyShips.indexOf(column))
 								+ positionX, (SEPARATION_DISTANCE * i)
 								+ positionY, spriteType));
+				this.lattice[this.enemyShips.indexOf(column)][i] = column
+						.get(i);
 				this.shipCount++;
 			}
 		}
@@ -178,12 +190,26 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 	/**
 	 * Draws every individual component of the formation.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, ships are
+	 *            drawn that far along their last movement.
+	 */
+	public final void draw(final double interpolation) {
+		for (List<EnemyShip> column : this.enemyShips)
+			for (EnemyShip enemyShip : column)
+				drawManager.drawEntity(enemyShip,
+						enemyShip.getInterpolatedPositionX(interpolation),
+						enemyShip.getInterpolatedPositionY(interpolation));
+	}
+
+	/**
+	 * Keeps the position of every ship before the update about to run.
 	 */
-	public final void draw() {
+	public final void savePositions() {
 		for (List<EnemyShip> column : this.enemyShips)
 			for (EnemyShip enemyShip : column)
-				drawManager.drawEntity(enemyShip, enemyShip.getPositionX(),
-						enemyShip.getPositionY());
+				enemyShip.savePosition();
 	}
 
 	/**
@@ -257,6 +283,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 			positionX += movementX;
 			positionY += movementY;
+			this.latticeX += movementX;
+			this.latticeY += movementY;
 
 			// Cleans explosions.
 			List<EnemyShip> destroyed;
@@ -403,19 +431,100 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	}
 
 	/**
-	 * Returns an iterator over the ships in the formation.
+	 * Finds the ships that may touch an area, such as a bullet. As every
+	 * ship keeps its place in the formation, the columns and rows reached
+	 * by the area are computed directly; an area smaller than the space
+	 * between ships reaches at most two of each.
+	 * 
+	 * @param areaX
+	 *            Position in the x-axis of the upper left corner of the
+	 *            area.
+	 * @param areaY
+	 *            Position in the y-axis of the upper left corner of the
+	 *            area.
+	 * @param areaWidth
+	 *            Width of the area.
+	 * @param areaHeight
+	 *            Height of the area.
+	 * @param candidates
+	 *            List cleared and filled with the ships found that are not
+	 *            destroyed.
+	 */
+	public final void getCandidates(final int areaX, final int areaY,
+			final int areaWidth, final int areaHeight,
+			final List<EnemyShip> candidates) {
+		candidates.clear();
+		int left = Math.max(0, floorDiv(areaX - this.shipWidth + 1
+				- this.latticeX, SEPARATION_DISTANCE));
+		int right = Math.min(this.nShipsWide - 1, floorDiv(areaX
+				+ areaWidth - 1 - this.latticeX, SEPARATION_DISTANCE));
+		int top = Math.max(0, floorDiv(areaY - this.shipHeight + 1
+				- this.latticeY, SEPARATION_DISTANCE));
+		int bottom = Math.min(this.nShipsHigh - 1, floorDiv(areaY
+				+ areaHeight - 1 - this.latticeY, SEPARATION_DISTANCE));
+
+		for (int column = left; column <= right; column++)
+			for (int row = top; row <= bottom; row++) {
+				EnemyShip enemyShip = this.lattice[column][row];
+				if (enemyShip != null && !enemyShip.isDestroyed())
+					candidates.add(enemyShip);
+			}
+	}
+
+	/**
+	 * Divides rounding towards negative infinity, so areas above or to the
+	 * left of the formation fall outside of it instead of in its first row
+	 * or column.
+	 * 
+	 * @param dividend
+	 *            Number divided.
+	 * @param divisor
+	 *            Positive number to divide by.
+	 * @return Largest integer not greater than the exact quotient.
+	 */
+	private static int floorDiv(final int dividend, final int divisor) {
+		int quotient = dividend / divisor;
+		if (dividend % divisor < 0)
+			quotient--;
+		return quotient;
+	}
+
+	/**
+	 * Returns an iterator over the ships in the formation, column by column,
+	 * without copying them.
 	 * 
 	 * @return Iterator over the enemy ships.
 	 */
 	@Override
 	public final Iterator<EnemyShip> iterator() {
-		Set<EnemyShip> enemyShipsList = new HashSet<EnemyShip>();
+		return new Iterator<EnemyShip>() {
+			/** Column of the next ship. */
+			private int column = 0;
+			/** Row of the next ship in its column. */
+			private int row = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (this.column < enemyShips.size()
+						&& this.row >= enemyShips.get(this.column).size()) {
+					this.column++;
+					this.row = 0;
+				}
+				return this.column < enemyShips.size();
+			}
 
-		for (List<EnemyShip> column : this.enemyShips)
-			for (EnemyShip enemyShip : column)
-				enemyShipsList.add(enemyShip);
+			@Override
+			public EnemyShip next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return enemyShips.get(this.column).get(this.row++);
+			}
 
-		return enemyShipsList.iterator();
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	/**
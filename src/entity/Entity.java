@@ -16,6 +16,10 @@ public class Entity {
 	protected int positionX;
 	/** Position in the y-axis of the upper left corner of the entity. */
 	protected int positionY;
+	/** Position in the x-axis before the last update. */
+	private int previousPositionX;
+	/** Position in the y-axis before the last update. */
+	private int previousPositionY;
 	/** Width of the entity. */
 	protected int width;
 	/** Height of the entity. */
@@ -43,6 +47,8 @@ public class Entity {
 			final int height, final Color color) {
 		this.positionX = positionX;
 		this.positionY = positionY;
+		this.previousPositionX = positionX;
+		this.previousPositionY = positionY;
 		this.width = width;
 		this.height = height;
 		this.color = color;
@@ -76,23 +82,66 @@ public class Entity {
 	}
 
 	/**
-	 * Setter for the X axis position of the entity.
+	 * Setter for the X axis position of the entity. The entity is placed
+	 * there, and not drawn moving from its old position.
 	 * 
 	 * @param positionX
 	 *            New position of the entity in the X axis.
 	 */
 	public final void setPositionX(final int positionX) {
 		this.positionX = positionX;
+		this.previousPositionX = positionX;
 	}
 
 	/**
-	 * Setter for the Y axis position of the entity.
+	 * Setter for the Y axis position of the entity. The entity is placed
+	 * there, and not drawn moving from its old position.
 	 * 
 	 * @param positionY
 	 *            New position of the entity in the Y axis.
 	 */
 	public final void setPositionY(final int positionY) {
 		this.positionY = positionY;
+		this.previousPositionY = positionY;
+	}
+
+	/**
+	 * Keeps the current position as the one before the update about to
+	 * run, so frames drawn after it can show the movement in between.
+	 */
+	public final void savePosition() {
+		this.previousPositionX = this.positionX;
+		this.previousPositionY = this.positionY;
+	}
+
+	/**
+	 * Returns the X axis position to draw the entity at, between its
+	 * positions before and after the last update.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, from 0 to
+	 *            1.
+	 * @return Position of the entity in the X axis, at that fraction of its
+	 *         last movement.
+	 */
+	public final int getInterpolatedPositionX(final double interpolation) {
+		return this.previousPositionX + (int) Math.round((this.positionX
+				- this.previousPositionX) * interpolation);
+	}
+
+	/**
+	 * Returns the Y axis position to draw the entity at, between its
+	 * positions before and after the last update.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, from 0 to
+	 *            1.
+	 * @return Position of the entity in the Y axis, at that fraction of its
+	 *         last movement.
+	 */
+	public final int getInterpolatedPositionY(final double interpolation) {
+		return this.previousPositionY + (int) Math.round((this.positionY
+				- this.previousPositionY) * interpolation);
 	}
 
 	/**
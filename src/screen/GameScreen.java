@@ -1,11 +1,14 @@
 package screen;
 
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import engine.Cooldown;
 import engine.Core;
+import engine.FrameStats;
 import engine.GameSettings;
 import engine.GameState;
 import entity.Bullet;
@@ -37,6 +40,10 @@ public class GameScreen extends Screen {
 	private static final int SCREEN_CHANGE_INTERVAL = 1500;
 	/** Height of the interface separation line. */
 	private static final int SEPARATION_LINE_HEIGHT = 40;
+	/** Layer with the score, the lives and the separation line. */
+	private static final int INTERFACE_LAYER = 0;
+	/** Layer with the countdown to game start. */
+	private static final int COUNTDOWN_LAYER = 1;
 
 	/** Current game difficulty settings. */
 	private GameSettings gameSettings;
@@ -56,6 +63,8 @@ public class GameScreen extends Screen {
 	private Cooldown screenFinishedCooldown;
 	/** Set of all bullets fired by on screen ships. */
 	private Set<Bullet> bullets;
+	/** Enemy ships near the bullet being checked. */
+	private List<EnemyShip> collisionCandidates;
 	/** Current score. */
 	private int score;
 	/** Player lives left. */
@@ -109,7 +118,8 @@ public class GameScreen extends Screen {
 	public final void initialize() {
 		super.initialize();
 
-		enemyShipFormation = new EnemyShipFormation(this.gameSettings);
+		enemyShipFormation = Core.getPreloader().takeFormation(
+				this.gameSettings);
 		enemyShipFormation.attach(this);
 		this.ship = new Ship(this.width / 2, this.height - 30);
 		// Appears each 10-30 seconds.
@@ -120,9 +130,10 @@ public class GameScreen extends Screen {
 				.getCooldown(BONUS_SHIP_EXPLOSION);
 		this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
 		this.bullets = new HashSet<Bullet>();
+		this.collisionCandidates = new ArrayList<EnemyShip>();
 
 		// Special input delay / countdown.
-		this.gameStartTime = System.currentTimeMillis();
+		this.gameStartTime = this.clock.getTime();
 		this.inputDelay = Core.getCooldown(INPUT_DELAY);
 		this.inputDelay.reset();
 	}
@@ -147,6 +158,14 @@ public class GameScreen extends Screen {
 	protected final void update() {
 		super.update();
 
+		// Positions before this update, frames drawn after it move from them.
+		this.ship.savePosition();
+		if (this.enemyShipSpecial != null)
+			this.enemyShipSpecial.savePosition();
+		this.enemyShipFormation.savePositions();
+		for (Bullet bullet : this.bullets)
+			bullet.savePosition();
+
 		if (this.inputDelay.checkFinished() && !this.levelFinished) {
 
 			if (!this.ship.isDestroyed()) {
@@ -195,9 +214,11 @@ public class GameScreen extends Screen {
 			this.enemyShipFormation.shoot(this.bullets);
 		}
 
+		long collisionStart = System.nanoTime();
 		manageCollisions();
+		this.frameStats.record(FrameStats.Phase.COLLISION, System.nanoTime()
+				- collisionStart);
 		cleanBullets();
-		draw();
 
 		if ((this.enemyShipFormation.isEmpty() || this.lives == 0)
 				&& !this.levelFinished) {
@@ -212,39 +233,54 @@ public class GameScreen extends Screen {
 
 	/**
 	 * Draws the elements associated with the screen.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, every
+	 *            entity is drawn that far along its last movement.
 	 */
-	private void draw() {
+	protected final void draw(final double interpolation) {
 		drawManager.initDrawing(this);
 
-		drawManager.drawEntity(this.ship, this.ship.getPositionX(),
-				this.ship.getPositionY());
+		drawManager.drawEntity(this.ship,
+				this.ship.getInterpolatedPositionX(interpolation),
+				this.ship.getInterpolatedPositionY(interpolation));
 		if (this.enemyShipSpecial != null)
 			drawManager.drawEntity(this.enemyShipSpecial,
-					this.enemyShipSpecial.getPositionX(),
-					this.enemyShipSpecial.getPositionY());
+					this.enemyShipSpecial
+							.getInterpolatedPositionX(interpolation),
+					this.enemyShipSpecial
+							.getInterpolatedPositionY(interpolation));
 
-		enemyShipFormation.draw();
+		enemyShipFormation.draw(interpolation);
 
 		for (Bullet bullet : this.bullets)
-			drawManager.drawEntity(bullet, bullet.getPositionX(),
-					bullet.getPositionY());
+			drawManager.drawEntity(bullet,
+					bullet.getInterpolatedPositionX(interpolation),
+					bullet.getInterpolatedPositionY(interpolation));
 
 		// Interface.
-		drawManager.drawScore(this, this.score);
-		drawManager.drawLives(this, this.lives);
-		drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
+		if (drawManager.beginLayer(this, INTERFACE_LAYER,
+				(long) this.score << 32 | this.lives)) {
+			drawManager.drawScore(this, this.score);
+			drawManager.drawLives(this, this.lives);
+			drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
+		}
+		drawManager.endLayer();
 
 		// Countdown to game start.
 		if (!this.inputDelay.checkFinished()) {
 			int countdown = (int) ((INPUT_DELAY
-					- (System.currentTimeMillis()
+					- (this.clock.getTime()
 							- this.gameStartTime)) / 1000);
-			drawManager.drawCountDown(this, this.level, countdown,
-					this.bonusLife);
-			drawManager.drawHorizontalLine(this, this.height / 2 - this.height
-					/ 12);
-			drawManager.drawHorizontalLine(this, this.height / 2 + this.height
-					/ 12);
+			if (drawManager.beginLayer(this, COUNTDOWN_LAYER, countdown)) {
+				drawManager.drawCountDown(this, this.level, countdown,
+						this.bonusLife);
+				drawManager.drawHorizontalLine(this, this.height / 2
+						- this.height / 12);
+				drawManager.drawHorizontalLine(this, this.height / 2
+						+ this.height / 12);
+			}
+			drawManager.endLayer();
 		}
 
 		drawManager.completeDrawing(this);
@@ -282,7 +318,11 @@ public class GameScreen extends Screen {
 					}
 				}
 			} else {
-				for (EnemyShip enemyShip : this.enemyShipFormation)
+				// Only the ships close to the bullet can be hit.
+				this.enemyShipFormation.getCandidates(bullet.getPositionX(),
+						bullet.getPositionY(), bullet.getWidth(),
+						bullet.getHeight(), this.collisionCandidates);
+				for (EnemyShip enemyShip : this.collisionCandidates)
 					if (!enemyShip.isDestroyed()
 							&& checkCollision(bullet, enemyShip)) {
 						this.score += enemyShip.getPointValue();
@@ -15,6 +15,9 @@ import engine.Score;
  */
 public class HighScoreScreen extends Screen {
 
+	/** Layer with the title and the high scores. */
+	private static final int SCORES_LAYER = 0;
+
 	/** List of past high scores. */
 	private List<Score> highScores;
 
@@ -34,7 +37,7 @@ public class HighScoreScreen extends Screen {
 		this.returnCode = 1;
 
 		try {
-			this.highScores = Core.getFileManager().loadHighScores();
+			this.highScores = Core.getPreloader().takeHighScores();
 		} catch (NumberFormatException | IOException e) {
 			logger.warning("Couldn't load high scores!");
 		}
@@ -57,20 +60,35 @@ public class HighScoreScreen extends Screen {
 	protected final void update() {
 		super.update();
 
-		draw();
 		if (inputManager.isKeyDown(KeyEvent.VK_SPACE)
 				&& this.inputDelay.checkFinished())
 			this.isRunning = false;
 	}
 
+	/**
+	 * The screen only changes on input, or when the input delay finishes.
+	 * 
+	 * @return Always true.
+	 */
+	@Override
+	protected final boolean isIdleCapable() {
+		return true;
+	}
+
 	/**
 	 * Draws the elements associated with the screen.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, unused.
 	 */
-	private void draw() {
+	protected final void draw(final double interpolation) {
 		drawManager.initDrawing(this);
 
-		drawManager.drawHighScoreMenu(this);
-		drawManager.drawHighScores(this, this.highScores);
+		if (drawManager.beginLayer(this, SCORES_LAYER, 0)) {
+			drawManager.drawHighScoreMenu(this);
+			drawManager.drawHighScores(this, this.highScores);
+		}
+		drawManager.endLayer();
 
 		drawManager.completeDrawing(this);
 	}
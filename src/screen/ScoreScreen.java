@@ -26,6 +26,8 @@ public class ScoreScreen extends Screen {
 	private static final int FIRST_CHAR = 65;
 	/** Code of last mayus character. */
 	private static final int LAST_CHAR = 90;
+	/** Layer with the results and the name input. */
+	private static final int RESULTS_LAYER = 0;
 
 	/** Current score. */
 	private int score;
@@ -73,7 +75,7 @@ public class ScoreScreen extends Screen {
 		this.selectionCooldown.reset();
 
 		try {
-			this.highScores = Core.getFileManager().loadHighScores();
+			this.highScores = Core.getPreloader().takeHighScores();
 			if (highScores.size() < MAX_HIGH_SCORE_NUM
 					|| highScores.get(highScores.size() - 1).getScore()
 					< this.score)
@@ -101,7 +103,6 @@ public class ScoreScreen extends Screen {
 	protected final void update() {
 		super.update();
 
-		draw();
 		if (this.inputDelay.checkFinished()) {
 			if (inputManager.isKeyDown(KeyEvent.VK_ESCAPE)) {
 				// Return to main menu.
@@ -147,6 +148,29 @@ public class ScoreScreen extends Screen {
 
 	}
 
+	/**
+	 * The screen only changes on input, or when a timer finishes.
+	 * 
+	 * @return Always true.
+	 */
+	@Override
+	protected final boolean isIdleCapable() {
+		return true;
+	}
+
+	/**
+	 * Returns the time until the input or selection timers finish.
+	 * 
+	 * @return Milliseconds the screen can stay idle.
+	 */
+	@Override
+	protected final long getIdleTime() {
+		if (this.selectionCooldown.checkFinished())
+			return super.getIdleTime();
+		return Math.min(super.getIdleTime(),
+				this.selectionCooldown.getRemainingTime());
+	}
+
 	/**
 	 * Saves the score as a high score.
 	 */
@@ -157,26 +181,38 @@ public class ScoreScreen extends Screen {
 			highScores.remove(highScores.size() - 1);
 
 		try {
-			Core.getFileManager().saveHighScores(highScores);
+			Core.getPreloader().saveHighScores(highScores);
 		} catch (IOException e) {
-			logger.warning("Couldn't load high scores!");
+			logger.warning("Couldn't save high scores!");
 		}
 	}
 
 	/**
 	 * Draws the elements associated with the screen.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, unused.
 	 */
-	private void draw() {
+	protected final void draw(final double interpolation) {
 		drawManager.initDrawing(this);
 
-		drawManager.drawGameOver(this, this.inputDelay.checkFinished(),
-				this.isNewRecord);
-		drawManager.drawResults(this, this.score, this.livesRemaining,
-				this.shipsDestroyed, (float) this.shipsDestroyed
-						/ this.bulletsShot, this.isNewRecord);
-
-		if (this.isNewRecord)
-			drawManager.drawNameInput(this, this.name, this.nameCharSelected);
+		boolean acceptsInput = this.inputDelay.checkFinished();
+		// Everything shown depends only on the input state and the name.
+		long version = (acceptsInput ? 1L : 0L) << 32 | this.name[0] << 24
+				| this.name[1] << 16 | this.name[2] << 8
+				| this.nameCharSelected;
+
+		if (drawManager.beginLayer(this, RESULTS_LAYER, version)) {
+			drawManager.drawGameOver(this, acceptsInput, this.isNewRecord);
+			drawManager.drawResults(this, this.score, this.livesRemaining,
+					this.shipsDestroyed, (float) this.shipsDestroyed
+							/ this.bulletsShot, this.isNewRecord);
+
+			if (this.isNewRecord)
+				drawManager.drawNameInput(this, this.name,
+						this.nameCharSelected);
+		}
+		drawManager.endLayer();
 
 		drawManager.completeDrawing(this);
 	}
@@ -1,12 +1,16 @@
 package screen;
 
+import java.awt.GraphicsEnvironment;
 import java.awt.Insets;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
+import engine.FrameStats;
+import engine.GameClock;
+import engine.TimerWheel;
 import engine.InputManager;
 
 /**
@@ -19,6 +23,24 @@ public class Screen {
 	
 	/** Milliseconds until the screen accepts user input. */
 	private static final int INPUT_DELAY = 1000;
+	/** Longest time an idle screen waits between updates, in milliseconds. */
+	protected static final long MAX_IDLE_TIME = 1000;
+	/** If idle screens wait for input to update, chosen at startup. */
+	private static final boolean IDLE_RENDERING = Boolean
+			.getBoolean("invaders.idle");
+	/** If updates run as fast as possible, without a display to wait for. */
+	private static final boolean UNLIMITED_RATE = GraphicsEnvironment
+			.isHeadless();
+	/** Frames drawn per second, chosen at startup, 0 to draw every update. */
+	private static final int RENDER_FPS = Integer.getInteger(
+			"invaders.renderFps", 0);
+	/** Most frames skipped in a row to catch up, chosen at startup. */
+	private static final int MAX_FRAME_SKIP = Math.max(0, Integer.getInteger(
+			"invaders.maxFrameSkip", 5));
+	/** Time left before a deadline when waiting turns into spinning. */
+	private static final long SPIN_TIME = 1000000L;
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
 
 	/** Draw Manager instance. */
 	protected DrawManager drawManager;
@@ -26,12 +48,18 @@ public class Screen {
 	protected InputManager inputManager;
 	/** Application logger. */
 	protected Logger logger;
+	/** Frame timing statistics. */
+	protected FrameStats frameStats;
+	/** Source of the time of the game. */
+	protected GameClock clock;
+	/** Wheel marking cooldowns finished, null if they poll the clock. */
+	private TimerWheel timerWheel;
 
 	/** Screen width. */
 	protected int width;
 	/** Screen height. */
 	protected int height;
-	/** Frames per second shown on the screen. */
+	/** Updates per second, frame rate at which the game is run. */
 	protected int fps;
 	/** Screen insets. */
 	protected Insets insets;
@@ -61,6 +89,9 @@ public class Screen {
 		this.drawManager = Core.getDrawManager();
 		this.inputManager = Core.getInputManager();
 		this.logger = Core.getLogger();
+		this.frameStats = Core.getFrameStats();
+		this.clock = Core.getClock();
+		this.timerWheel = Core.getTimerWheel();
 		this.inputDelay = Core.getCooldown(INPUT_DELAY);
 		this.inputDelay.reset();
 		this.returnCode = 0;
@@ -74,37 +105,237 @@ public class Screen {
 	}
 
 	/**
-	 * Activates the screen.
+	 * Activates the screen. Updates run at a fixed rate, and frames are
+	 * drawn at their own rate with the fraction of an update elapsed since
+	 * the last one. When late, up to MAX_FRAME_SKIP frames are not drawn and
+	 * up to MAX_FRAME_SKIP + 1 updates run in a row so the updates catch up;
+	 * later than that, the game slows down.
 	 * 
 	 * @return Next screen code.
 	 */
 	public int run() {
+		if (Core.isTurbo())
+			return runTurbo();
+
 		this.isRunning = true;
+		long totalUpdateTime = 0;
+		long totalIdleTime = 0;
+		int updateCount = 0;
+		int drawCount = 0;
+		int skippedFrameCount = 0;
+		long lostTime = 0;
+		long runStart = System.currentTimeMillis();
+
+		long updatePeriod = NANOS_PER_SECOND / this.fps;
+		long drawPeriod = RENDER_FPS > 0 ? NANOS_PER_SECOND / RENDER_FPS
+				: updatePeriod;
+		long maxDrawTime = drawPeriod * (MAX_FRAME_SKIP + 1);
+		// Counted in updates, whatever the rate frames are drawn at.
+		long maxUpdateTime = updatePeriod * (MAX_FRAME_SKIP + 1);
+		// Both are due right away.
+		long updateTime = updatePeriod;
+		long drawTime = drawPeriod;
+		long previousTime = System.nanoTime();
 
 		while (this.isRunning) {
-			long time = System.currentTimeMillis();
+			int inputVersion = this.inputManager.getInputVersion();
+			long currentTime = System.nanoTime();
+			long elapsed = currentTime - previousTime;
+			previousTime = currentTime;
+			if (UNLIMITED_RATE) {
+				// One update and one frame each time.
+				updateTime = updatePeriod;
+				drawTime = drawPeriod;
+			} else {
+				updateTime += elapsed;
+				drawTime = Math.min(drawTime + elapsed, maxDrawTime);
+				if (updateTime > maxUpdateTime) {
+					lostTime += updateTime - maxUpdateTime;
+					updateTime = maxUpdateTime;
+				}
+			}
 
-			update();
+			long frameStart = System.nanoTime();
+			boolean isFrame = false;
+			while (updateTime >= updatePeriod && this.isRunning) {
+				long updateStart = System.nanoTime();
+				tick(updatePeriod);
+				update();
+				long duration = System.nanoTime() - updateStart;
+				this.frameStats.record(FrameStats.Phase.UPDATE, duration);
+				totalUpdateTime += duration;
+				updateCount++;
+				updateTime -= updatePeriod;
+				isFrame = true;
+			}
 
-			time = (1000 / this.fps) - (System.currentTimeMillis() - time);
-			if (time > 0) {
-				try {
-					TimeUnit.MILLISECONDS.sleep(time);
-				} catch (InterruptedException e) {
-					return 0;
+			if (drawTime >= drawPeriod) {
+				int skipped = (int) (drawTime / drawPeriod) - 1;
+				if (skipped > 0) {
+					skippedFrameCount += skipped;
+					this.frameStats.recordSkippedFrames(skipped);
 				}
+				long drawStart = System.nanoTime();
+				draw((double) updateTime / updatePeriod);
+				this.frameStats.record(FrameStats.Phase.DRAW,
+						System.nanoTime() - drawStart);
+				drawCount++;
+				drawTime %= drawPeriod;
+				isFrame = true;
 			}
+			if (isFrame)
+				this.frameStats.recordFrame(System.nanoTime() - frameStart,
+						Math.min(updatePeriod, drawPeriod));
+			if (!this.isRunning)
+				break;
+
+			long sleepStart = System.nanoTime();
+			try {
+				if (!UNLIMITED_RATE)
+					waitUntil(currentTime + Math.min(updatePeriod - updateTime,
+							drawPeriod - drawTime));
+
+				// Nothing changes on screen until some input or timer does.
+				if (IDLE_RENDERING && isIdleCapable()) {
+					long idleStart = System.currentTimeMillis();
+					this.inputManager.awaitInput(inputVersion,
+							Math.min(getIdleTime(), MAX_IDLE_TIME));
+					totalIdleTime += System.currentTimeMillis() - idleStart;
+					// Time spent idle is not caught up with.
+					previousTime = System.nanoTime();
+					updateTime = updatePeriod;
+					drawTime = drawPeriod;
+				}
+			} catch (InterruptedException e) {
+				return 0;
+			}
+			this.frameStats.record(FrameStats.Phase.SLEEP, System.nanoTime()
+					- sleepStart);
 		}
 
+		if (updateCount > 0)
+			this.logger.info("Ran " + updateCount + " updates and drew "
+					+ drawCount + " frames, "
+					+ totalUpdateTime / updateCount / 1000
+					+ " microseconds per update on average.");
+		if (skippedFrameCount > 0 || lostTime > 0)
+			this.logger.info("Skipped " + skippedFrameCount
+					+ " frames to keep up, fell " + lostTime / 1000000
+					+ " milliseconds behind.");
+		if (IDLE_RENDERING && isIdleCapable())
+			this.logger.info("Waited for input " + totalIdleTime + " of "
+					+ (System.currentTimeMillis() - runStart)
+					+ " milliseconds.");
+		this.drawManager.logFrameStatistics();
+		if (this.timerWheel != null)
+			this.timerWheel.logStatistics();
+		this.frameStats.dump(getClass().getSimpleName());
 		return 0;
 	}
 
+	/**
+	 * Activates the screen in turbo mode, running updates one after another
+	 * with no waiting and nothing drawn. The game clock is simulated, each
+	 * update moves it forward by the time between updates.
+	 * 
+	 * @return Next screen code.
+	 */
+	private int runTurbo() {
+		this.isRunning = true;
+		long updatePeriod = NANOS_PER_SECOND / this.fps;
+		int updateCount = 0;
+		long runStart = System.nanoTime();
+
+		while (this.isRunning) {
+			long updateStart = System.nanoTime();
+			tick(updatePeriod);
+			update();
+			this.frameStats.record(FrameStats.Phase.UPDATE, System.nanoTime()
+					- updateStart);
+			updateCount++;
+		}
+
+		long runTime = Math.max(1, System.nanoTime() - runStart);
+		this.logger.info("Ran " + updateCount + " updates in turbo mode in "
+				+ runTime / 1000000 + " milliseconds, "
+				+ updateCount * NANOS_PER_SECOND / runTime
+				+ " updates per second.");
+		if (this.timerWheel != null)
+			this.timerWheel.logStatistics();
+		this.frameStats.dump(getClass().getSimpleName());
+		return 0;
+	}
+
+	/**
+	 * Moves the game clock forward before an update, and the timer wheel
+	 * with it if there is one, finishing the cooldowns reached.
+	 * 
+	 * @param updatePeriod
+	 *            Time between updates, in nanoseconds.
+	 */
+	private void tick(final long updatePeriod) {
+		this.clock.tick(updatePeriod);
+		if (this.timerWheel != null)
+			this.timerWheel.advance(this.clock.getTime());
+	}
+
+	/**
+	 * Waits until a moment, parking the thread while it is far and spinning
+	 * when it is close, as parking may oversleep by the timer resolution.
+	 * 
+	 * @param deadline
+	 *            Moment to wait until, as given by System.nanoTime().
+	 */
+	private static void waitUntil(final long deadline) {
+		long remaining = deadline - System.nanoTime();
+		while (remaining > SPIN_TIME) {
+			LockSupport.parkNanos(remaining - SPIN_TIME);
+			remaining = deadline - System.nanoTime();
+		}
+		while (deadline - System.nanoTime() > 0)
+			Thread.yield();
+	}
+
+	/**
+	 * Checks if the screen only changes on input or when a timer finishes,
+	 * so it does not need to be updated in between.
+	 * 
+	 * @return True if the screen can wait for input while idle.
+	 */
+	protected boolean isIdleCapable() {
+		return false;
+	}
+
+	/**
+	 * Returns how long the screen can wait without updating if there is no
+	 * input, that is, the time until its next timer finishes.
+	 * 
+	 * @return Milliseconds the screen can stay idle.
+	 */
+	protected long getIdleTime() {
+		if (this.inputDelay.checkFinished())
+			return MAX_IDLE_TIME;
+		return this.inputDelay.getRemainingTime();
+	}
+
 	/**
 	 * Updates the elements on screen and checks for events.
 	 */
 	protected void update() {
 	}
 
+	/**
+	 * Draws the elements on screen. Elements moving between updates may be
+	 * drawn between their positions before and after the last update, the
+	 * given fraction of the way, so frames lag the updates by up to one.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, from 0 to
+	 *            1.
+	 */
+	protected void draw(final double interpolation) {
+	}
+
 	/**
 	 * Getter for screen width.
 	 * 
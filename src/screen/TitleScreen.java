@@ -15,6 +15,8 @@ public class TitleScreen extends Screen {
 
 	/** Milliseconds between changes in user selection. */
 	private static final int SELECTION_TIME = 200;
+	/** Layer with the title and the menu. */
+	private static final int MENU_LAYER = 0;
 	
 	/** Time between changes in user selection. */
 	private Cooldown selectionCooldown;
@@ -55,7 +57,6 @@ public class TitleScreen extends Screen {
 	protected final void update() {
 		super.update();
 
-		draw();
 		if (this.selectionCooldown.checkFinished()
 				&& this.inputDelay.checkFinished()) {
 			if (inputManager.isKeyDown(KeyEvent.VK_UP)
@@ -71,6 +72,30 @@ public class TitleScreen extends Screen {
 			if (inputManager.isKeyDown(KeyEvent.VK_SPACE))
 				this.isRunning = false;
 		}
+
+	}
+
+	/**
+	 * The screen only changes on input, or when a timer finishes.
+	 * 
+	 * @return Always true.
+	 */
+	@Override
+	protected final boolean isIdleCapable() {
+		return true;
+	}
+
+	/**
+	 * Returns the time until the input or selection timers finish.
+	 * 
+	 * @return Milliseconds the screen can stay idle.
+	 */
+	@Override
+	protected final long getIdleTime() {
+		if (this.selectionCooldown.checkFinished())
+			return super.getIdleTime();
+		return Math.min(super.getIdleTime(),
+				this.selectionCooldown.getRemainingTime());
 	}
 
 	/**
@@ -99,12 +124,19 @@ public class TitleScreen extends Screen {
 
 	/**
 	 * Draws the elements associated with the screen.
+	 * 
+	 * @param interpolation
+	 *            Fraction of an update elapsed since the last one, the menu
+	 *            has nothing moving.
 	 */
-	private void draw() {
+	protected final void draw(final double interpolation) {
 		drawManager.initDrawing(this);
 
-		drawManager.drawTitle(this);
-		drawManager.drawMenu(this, this.returnCode);
+		if (drawManager.beginLayer(this, MENU_LAYER, this.returnCode)) {
+			drawManager.drawTitle(this);
+			drawManager.drawMenu(this, this.returnCode);
+		}
+		drawManager.endLayer();
 
 		drawManager.completeDrawing(this);
 	}